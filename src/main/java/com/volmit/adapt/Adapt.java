@@ -22,6 +22,11 @@ import art.arcane.amulet.io.FolderWatcher;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.volmit.adapt.api.data.FilePlayerStore;
+import com.volmit.adapt.api.data.PlayerPersistence;
+import com.volmit.adapt.api.data.PlayerStore;
+import com.volmit.adapt.api.data.SegmentedPlayerStore;
+import com.volmit.adapt.api.data.SqlitePlayerStore;
 import com.volmit.adapt.api.data.WorldData;
 import com.volmit.adapt.api.tick.Ticker;
 import com.volmit.adapt.api.value.MaterialValue;
@@ -52,6 +57,9 @@ public class Adapt extends VolmitPlugin {
     @Getter
     private Ticker ticker;
 
+    @Getter
+    private PlayerPersistence playerPersistence;
+
     @Getter
     private AdaptServer adaptServer;
     private FolderWatcher configWatcher;
@@ -78,10 +86,30 @@ public class Adapt extends VolmitPlugin {
         printInformation();
         NMS.init();
         ticker = new Ticker();
+        playerPersistence = new PlayerPersistence(createPlayerStore(), AdaptConfig.get().getPlayerSaveQueueSize(), AdaptConfig.get().isJournalPlayerData(), AdaptConfig.get().getOfflinePlayerCacheKb());
         adaptServer = new AdaptServer();
         setupMetrics();
     }
 
+    private PlayerStore createPlayerStore() {
+        PlayerStore files = new FilePlayerStore(AdaptConfig.get().isBinaryPlayerData(), AdaptConfig.get().isShardedPlayerFiles());
+
+        if(AdaptConfig.get().getPlayerStore().equalsIgnoreCase("segmented")) {
+            return new SegmentedPlayerStore(files, AdaptConfig.get().isShardedPlayerFiles());
+        }
+
+        if(AdaptConfig.get().getPlayerStore().equalsIgnoreCase("sqlite")) {
+            try {
+                return new SqlitePlayerStore(getDataFile("data", "players.db"), files);
+            } catch(Throwable e) {
+                error("Failed to open the player database, falling back to files");
+                e.printStackTrace();
+            }
+        }
+
+        return files;
+    }
+
     private void setupMetrics() {
         if (AdaptConfig.get().isMetrics()) {
             new Metrics(this, 13412);
@@ -91,6 +119,7 @@ public class Adapt extends VolmitPlugin {
     @Override
     public void stop() {
         adaptServer.unregister();
+        playerPersistence.close();
         MaterialValue.save();
         WorldData.stop();
     }
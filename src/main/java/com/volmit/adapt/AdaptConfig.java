@@ -18,10 +18,8 @@
 
 package com.volmit.adapt;
 
-import com.google.gson.Gson;
+import com.volmit.adapt.api.data.Json;
 import com.volmit.adapt.api.xp.Curves;
-import com.volmit.adapt.util.IO;
-import com.volmit.adapt.util.JSONObject;
 import lombok.Getter;
 import org.bukkit.Material;
 
@@ -42,6 +40,24 @@ public class AdaptConfig {
     private double playerXpPerSkillLevelUpBase = 489;
     private double playerXpPerSkillLevelUpLevelMultiplier = 44;
     private double powerPerLevel = 0.73;
+    private double tickBudgetMs = 8;
+    private double overloadedServerTickMs = 60;
+    private double maxTickStretch = 8;
+    private int playerSaveQueueSize = 256;
+    private String playerStore = "file";
+    private boolean binaryPlayerData = false;
+    private boolean shardedPlayerFiles = false;
+    private boolean journalPlayerData = false;
+    private long playerSaveIntervalMs = 60000;
+    private long journaledPlayerSaveIntervalMs = 300000;
+    private long offlinePlayerCacheKb = 16384;
+    private int leaderboardSize = 100;
+    private long prefetchTimeoutMs = 2000;
+    private int mantleRegionsPerWorld = 64;
+    private long mantleIdleMs = 60000;
+    private String earningsStore = "block";
+    private double earningsSectionAllowance = 64;
+    private long earningsHalfLifeMs = 3600000;
     public boolean debug = false;
 
     @Getter
@@ -84,7 +100,7 @@ public class AdaptConfig {
 
             if(!l.exists()) {
                 try {
-                    IO.writeAll(l, new JSONObject(new Gson().toJson(dummy)).toString(4));
+                    Json.write(l, dummy);
                 } catch(IOException e) {
                     e.printStackTrace();
                     config = dummy;
@@ -93,8 +109,8 @@ public class AdaptConfig {
             }
 
             try {
-                config = new Gson().fromJson(IO.readAll(l), AdaptConfig.class);
-                IO.writeAll(l, new JSONObject(new Gson().toJson(config)).toString(4));
+                config = Json.read(l, AdaptConfig.class);
+                Json.write(l, config);
             } catch(IOException e) {
                 e.printStackTrace();
                 config = new AdaptConfig();
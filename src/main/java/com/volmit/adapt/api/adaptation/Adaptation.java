@@ -35,6 +35,7 @@ import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Recipe;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface Adaptation<T> extends Ticked, Component {
@@ -66,6 +67,7 @@ public interface Adaptation<T> extends Ticked, Component {
         PlayerData data = getPlayer(p).getData();
         if (data.getSkillLines().containsKey(getSkill().getName()) && data.getSkillLines().get(getSkill().getName()).getAdaptations().containsKey(getName())) {
             data.getSkillLines().get(getSkill().getName()).getAdaptations().get(getName()).getStorage().put(key, value);
+            data.markDirty();
             return true;
         }
 
@@ -144,6 +146,25 @@ public interface Adaptation<T> extends Ticked, Component {
 
     void onRegisterAdvancements(List<AdaptAdvancement> advancements);
 
+    /**
+     * Called each tick for every online player that has this adaptation learned.
+     */
+    default void onPlayerTick(Player p) {
+
+    }
+
+    /**
+     * Called when a player unlearns this adaptation or logs out, to undo anything
+     * {@link #onPlayerTick(Player)} left on them.
+     */
+    default void onDeactivate(Player p) {
+
+    }
+
+    default Collection<Player> getActivePlayers() {
+        return Adapt.instance.getAdaptServer().getAdaptationSubscriptions().getPlayers(this);
+    }
+
     default boolean hasAdaptation(Player p) {
         return getLevel(p) > 0;
     }
@@ -273,6 +294,7 @@ public interface Adaptation<T> extends Ticked, Component {
                         if (mylevel >= lvl) {
                             getPlayer(player).getData().getSkillLine(getSkill().getName()).giveKnowledge(rc);
                             getPlayer(player).getData().getSkillLine(getSkill().getName()).setAdaptation(this, lvl - 1);
+                            Adapt.instance.getAdaptServer().getAdaptationSubscriptions().update(player, this);
                             player.getWorld().playSound(player.getLocation(), Sound.BLOCK_NETHER_GOLD_ORE_PLACE, 0.7f, 1.355f);
                             player.getWorld().playSound(player.getLocation(), Sound.BLOCK_BEACON_DEACTIVATE, 0.4f, 0.755f);
                             w.close();
@@ -284,6 +306,7 @@ public interface Adaptation<T> extends Ticked, Component {
                         if (k >= c && getPlayer(player).getData().hasPowerAvailable(pc)) {
                             if (getPlayer(player).getData().getSkillLine(getSkill().getName()).spendKnowledge(c)) {
                                 getPlayer(player).getData().getSkillLine(getSkill().getName()).setAdaptation(this, lvl);
+                                Adapt.instance.getAdaptServer().getAdaptationSubscriptions().update(player, this);
                                 player.getWorld().playSound(player.getLocation(), Sound.BLOCK_NETHER_GOLD_ORE_PLACE, 0.9f, 1.355f);
                                 player.getWorld().playSound(player.getLocation(), Sound.BLOCK_ENCHANTMENT_TABLE_USE, 1.7f, 0.355f);
                                 player.getWorld().playSound(player.getLocation(), Sound.BLOCK_BEACON_POWER_SELECT, 0.4f, 0.155f);
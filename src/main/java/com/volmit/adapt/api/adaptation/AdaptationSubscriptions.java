@@ -0,0 +1,110 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.adaptation;
+
+import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.skill.SkillRegistry;
+import com.volmit.adapt.api.world.AdaptPlayer;
+import com.volmit.adapt.api.world.PlayerAdaptation;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which online players have each adaptation learned, so adaptations only
+ * tick the players that can actually use them instead of every online player.
+ */
+public class AdaptationSubscriptions {
+    private final Map<String, Set<Player>> active = new ConcurrentHashMap<>();
+
+    public Collection<Player> getPlayers(Adaptation<?> adaptation) {
+        Set<Player> players = active.get(adaptation.getName());
+        return players == null ? Collections.emptySet() : players;
+    }
+
+    public int getSubscriptionCount() {
+        return active.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Subscribes a player to everything they have learned. Reads the raw data so it
+     * can run before the player is visible to {@link Adaptation#getLevel(Player)}.
+     * Everything else is deactivated once, so effects left over from a crash or a
+     * previous version (attribute modifiers, max air) don't stick to the player.
+     */
+    public void join(AdaptPlayer p, SkillRegistry registry) {
+        Set<String> learned = new HashSet<>();
+
+        for(PlayerSkillLine i : p.getData().getSkillLines().values()) {
+            for(PlayerAdaptation j : i.getAdaptations().values()) {
+                if(j.getLevel() > 0) {
+                    learned.add(j.getId());
+                    subscribe(j.getId(), p.getPlayer());
+                }
+            }
+        }
+
+        for(Skill<?> i : registry.getSkills()) {
+            for(Adaptation<?> j : i.getAdaptations()) {
+                if(!learned.contains(j.getName())) {
+                    j.onDeactivate(p.getPlayer());
+                }
+            }
+        }
+    }
+
+    public void quit(Player p, SkillRegistry registry) {
+        for(Skill<?> i : registry.getSkills()) {
+            for(Adaptation<?> j : i.getAdaptations()) {
+                Set<Player> players = active.get(j.getName());
+
+                if(players != null && players.remove(p)) {
+                    j.onDeactivate(p);
+                }
+            }
+        }
+
+        active.values().forEach(i -> i.remove(p));
+    }
+
+    /**
+     * Re-reads the level of an adaptation after it was learned or unlearned.
+     */
+    public void update(Player p, Adaptation<?> adaptation) {
+        if(adaptation.getLevel(p) > 0) {
+            subscribe(adaptation.getName(), p);
+            return;
+        }
+
+        Set<Player> players = active.get(adaptation.getName());
+
+        if(players != null && players.remove(p)) {
+            adaptation.onDeactivate(p);
+        }
+    }
+
+    private void subscribe(String adaptation, Player p) {
+        active.computeIfAbsent(adaptation, k -> ConcurrentHashMap.newKeySet()).add(p);
+    }
+}
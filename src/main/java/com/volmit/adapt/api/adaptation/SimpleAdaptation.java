@@ -19,20 +19,20 @@
 package com.volmit.adapt.api.adaptation;
 
 import art.arcane.amulet.io.FileWatcher;
-import com.google.gson.Gson;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.advancement.AdaptAdvancement;
+import com.volmit.adapt.api.data.Json;
 import com.volmit.adapt.api.recipe.AdaptRecipe;
 import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.util.C;
-import com.volmit.adapt.util.IO;
 import com.volmit.adapt.util.J;
-import com.volmit.adapt.util.JSONObject;
 import com.volmit.adapt.util.advancements.advancement.AdvancementVisibility;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import org.bukkit.Material;
+import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.io.IOException;
@@ -90,6 +90,10 @@ public abstract class SimpleAdaptation<T> extends TickedObject implements Adapta
         J.a(() -> {
             fw.checkModified();
             Adapt.instance.getTicker().register(new TickedObject("config", "config-adaptation-" + getName(), 1000) {
+                {
+                    setPriority(TickPriority.LOW);
+                }
+
                 @Override
                 public void onTick() {
                     if(fw.checkModified() && file.exists())
@@ -113,7 +117,7 @@ public abstract class SimpleAdaptation<T> extends TickedObject implements Adapta
 
                 if(!l.exists()) {
                     try {
-                        IO.writeAll(l, new JSONObject(new Gson().toJson(dummy)).toString(4));
+                        Json.write(l, dummy);
                     } catch(IOException e) {
                         e.printStackTrace();
                         config = dummy;
@@ -122,8 +126,8 @@ public abstract class SimpleAdaptation<T> extends TickedObject implements Adapta
                 }
 
                 try {
-                    config = new Gson().fromJson(IO.readAll(l), getConfigurationClass());
-                    IO.writeAll(l, new JSONObject(new Gson().toJson(config)).toString(4));
+                    config = Json.read(l, getConfigurationClass());
+                    Json.write(l, config);
                 } catch(IOException e) {
                     e.printStackTrace();
                     config = dummy;
@@ -137,6 +141,21 @@ public abstract class SimpleAdaptation<T> extends TickedObject implements Adapta
         return config;
     }
 
+    /**
+     * Ticks only the players subscribed to this adaptation. Adaptations that act per
+     * player should override {@link #onPlayerTick(Player)} rather than this.
+     */
+    @Override
+    public void onTick() {
+        for(Player i : getActivePlayers()) {
+            try {
+                onPlayerTick(i);
+            } catch(Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public void registerRecipe(AdaptRecipe r) {
         recipes.add(r);
     }
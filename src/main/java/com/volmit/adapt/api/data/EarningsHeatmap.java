@@ -0,0 +1,149 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.util.IO;
+import com.volmit.adapt.util.M;
+import lombok.AllArgsConstructor;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Block earnings counted per 16x16x16 chunk section instead of per block. Each
+ * section keeps a heat value that halves every half life, applied lazily when the
+ * section is read, so old mining stops counting against a spot over time while a
+ * farm that keeps breaking blocks in the same few sections stays hot.
+ */
+public class EarningsHeatmap {
+    private static final int VERSION = 1;
+    private final Map<Long, Heat> sections;
+    private final File file;
+    private final double allowance;
+    private final double halfLife;
+
+    public EarningsHeatmap(File file, double allowance, long halfLifeMs) {
+        this.sections = new ConcurrentHashMap<>();
+        this.file = file;
+        this.allowance = Math.max(1, allowance);
+        this.halfLife = Math.max(1, halfLifeMs);
+    }
+
+    /**
+     * The multiplier for a block in this section. Full until the section's heat
+     * passes the allowance, then falling off as allowance / heat.
+     */
+    public double getMultiplier(int x, int y, int z) {
+        Heat h = sections.get(key(x, y, z));
+        return h == null ? 1 : multiplier(h.at(M.ms(), halfLife));
+    }
+
+    /**
+     * Returns the multiplier for a block, then adds one break to its section.
+     */
+    public double report(int x, int y, int z) {
+        long now = M.ms();
+        double[] before = new double[1];
+        sections.compute(key(x, y, z), (k, h) -> {
+            double v = h == null ? 0 : h.at(now, halfLife);
+            before[0] = v;
+            return new Heat(v + 1, now);
+        });
+
+        return multiplier(before[0]);
+    }
+
+    public int size() {
+        return sections.size();
+    }
+
+    /**
+     * Drops sections that have cooled below one break.
+     */
+    public void trim() {
+        long now = M.ms();
+        sections.values().removeIf(i -> i.at(now, halfLife) < 1);
+    }
+
+    public void save() throws IOException {
+        trim();
+        long now = M.ms();
+        ByteArrayOutputStream boas = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(boas);
+        Map<Long, Heat> snapshot = Map.copyOf(sections);
+        dos.writeInt(VERSION);
+        dos.writeInt(snapshot.size());
+
+        for(Map.Entry<Long, Heat> i : snapshot.entrySet()) {
+            dos.writeLong(i.getKey());
+            dos.writeFloat((float) i.getValue().at(now, halfLife));
+        }
+
+        dos.flush();
+        IO.writeAtomic(file, boas.toByteArray());
+    }
+
+    public void load() throws IOException {
+        if(!file.exists()) {
+            return;
+        }
+
+        long now = M.ms();
+        long age = now - file.lastModified();
+
+        try(DataInputStream din = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(din.readInt() != VERSION) {
+                return;
+            }
+
+            int size = din.readInt();
+
+            for(int i = 0; i < size; i++) {
+                long k = din.readLong();
+                double v = din.readFloat();
+                sections.put(k, new Heat(v, now - Math.max(0, age)));
+            }
+        }
+    }
+
+    private double multiplier(double heat) {
+        return heat < allowance ? 1 : allowance / (heat + 1);
+    }
+
+    private static long key(int x, int y, int z) {
+        return ((long) (x >> 4) & 0x3FFFFFL) << 42 | ((long) (z >> 4) & 0x3FFFFFL) << 20 | ((long) (y >> 4) & 0xFFFFFL);
+    }
+
+    @AllArgsConstructor
+    private static class Heat {
+        private final double value;
+        private final long time;
+
+        private double at(long now, double halfLife) {
+            return now <= time ? value : value * Math.pow(0.5, (now - time) / halfLife);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.util.Callback;
+import com.volmit.adapt.util.Chunker;
+import com.volmit.adapt.util.IO;
+import com.volmit.adapt.util.M;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * One file per player under data/players, either json or {@link PlayerDataCodec}
+ * binary. Files are replaced atomically and a file that fails to parse is moved
+ * aside instead of being overwritten by the next save.
+ * <p>
+ * When sharded, players are spread over data/players/ab/cd/ using the first four
+ * hex digits of their uuid, so no folder ends up with more than a few files even on
+ * large servers. Players still in the old flat layout are read from there and are
+ * written to their shard on their next save. The flat file is left in place until
+ * {@link #migrate(int, Callback)} moves or clears it, so turning sharding back off
+ * or downgrading still finds it.
+ */
+public class FilePlayerStore implements PlayerStore {
+    private static final String[] EXTENSIONS = {".json", ".dat", ".seg", ".journal"};
+    private final boolean binary;
+    private final boolean sharded;
+
+    public FilePlayerStore(boolean binary, boolean sharded) {
+        this.binary = binary;
+        this.sharded = sharded;
+    }
+
+    @Override
+    public String getName() {
+        return binary ? "binary files" : "json files";
+    }
+
+    public static File getFolder() {
+        return Adapt.instance.getDataFolder("data", "players");
+    }
+
+    /**
+     * Resolves a player's file without creating any folders, reads of unknown
+     * players shouldn't leave empty shards behind.
+     */
+    public static File locate(UUID id, String extension, boolean sharded) {
+        if(!sharded) {
+            return new File(getFolder(), id + extension);
+        }
+
+        String hex = id.toString();
+        return new File(new File(new File(getFolder(), hex.substring(0, 2)), hex.substring(2, 4)), id + extension);
+    }
+
+    public File getJsonFile(UUID id) {
+        return locate(id, ".json", sharded);
+    }
+
+    public File getBinaryFile(UUID id) {
+        return locate(id, ".dat", sharded);
+    }
+
+    /**
+     * Reads whichever of the json or binary file is newer. After switching formats
+     * both exist, the one in the configured format is newer once saved. A file
+     * can be moved into its shard by a migration while this runs, so when nothing
+     * was read but the player still has files the lookup is repeated rather than
+     * reporting a new player.
+     */
+    @Override
+    public PlayerData load(UUID id) throws IOException {
+        for(int i = 0; i < 3; i++) {
+            PlayerData data = load(getJsonFile(id), getBinaryFile(id));
+
+            if(data == null && sharded) {
+                data = load(locate(id, ".json", false), locate(id, ".dat", false));
+
+                if(data == null) {
+                    data = load(getJsonFile(id), getBinaryFile(id));
+                }
+            }
+
+            if(data != null || !exists(id)) {
+                return data;
+            }
+        }
+
+        throw new IOException("Player files for " + id + " kept moving while loading");
+    }
+
+    private boolean exists(UUID id) {
+        return getJsonFile(id).exists() || getBinaryFile(id).exists()
+            || (sharded && (locate(id, ".json", false).exists() || locate(id, ".dat", false).exists()));
+    }
+
+    private PlayerData load(File json, File bin) {
+        if(bin.exists() && (!json.exists() || bin.lastModified() >= json.lastModified())) {
+            try {
+                return PlayerDataCodec.decode(Files.readAllBytes(bin.toPath()));
+            } catch(NoSuchFileException | FileNotFoundException e) {
+                return null;
+            } catch(Throwable e) {
+                quarantine(bin, e);
+            }
+        }
+
+        if(json.exists()) {
+            try {
+                PlayerData data = Json.read(json, PlayerData.class);
+
+                if(data != null) {
+                    return data;
+                }
+
+                quarantine(json, null);
+            } catch(NoSuchFileException | FileNotFoundException e) {
+                return null;
+            } catch(Throwable e) {
+                quarantine(json, e);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public PlayerRecord snapshot(UUID id, PlayerData data) throws IOException {
+        data.clean();
+        byte[] bytes = binary ? PlayerDataCodec.encode(data) : Json.toBytes(data);
+        return new PlayerRecord(id, bytes, data.getJournalSeq(), List.of());
+    }
+
+    @Override
+    public void write(List<PlayerRecord> records) throws IOException {
+        // Copies in the other format or layout stay behind, older, so switching back or
+        // downgrading still finds them. /adapt migrate clears the flat ones.
+        for(PlayerRecord i : records) {
+            IO.writeAtomic(binary ? getBinaryFile(i.getId()) : getJsonFile(i.getId()), i.getData());
+        }
+    }
+
+    @Override
+    public Set<UUID> list() throws IOException {
+        return scan(".json", ".dat");
+    }
+
+    /**
+     * Finds every player with a file of one of the given extensions, in either
+     * layout.
+     */
+    public static Set<UUID> scan(String... extensions) throws IOException {
+        Set<UUID> ids = new HashSet<>();
+
+        try(Stream<Path> files = Files.walk(getFolder().toPath(), 3)) {
+            files.forEach(i -> {
+                String name = i.getFileName().toString();
+
+                for(String j : extensions) {
+                    if(name.endsWith(j)) {
+                        UUID id = parse(i.toFile());
+
+                        if(id != null) {
+                            ids.add(id);
+                        }
+                    }
+                }
+            });
+        }
+
+        return ids;
+    }
+
+    /**
+     * Moves every file still in the flat layout into its shard. Each file is moved
+     * on its own with a rename, so an interrupted run simply continues with whatever
+     * is left the next time. When a player already has a sharded copy the newer one
+     * wins.
+     *
+     * @return the number of files moved or dropped as stale
+     */
+    public static int migrate(int threads, Callback<Double> progress) {
+        List<File> files = new ArrayList<>();
+        File[] listed = getFolder().listFiles();
+
+        if(listed != null) {
+            for(File i : listed) {
+                if(i.isFile() && parse(i) != null) {
+                    files.add(i);
+                }
+            }
+        }
+
+        AtomicInteger moved = new AtomicInteger();
+        new Chunker<>(files).threads(Math.max(1, threads)).workload(64).execute(i -> {
+            try {
+                if(migrate(i)) {
+                    moved.incrementAndGet();
+                }
+            } catch(IOException e) {
+                Adapt.error("Failed to migrate " + i.getPath() + ": " + e.getMessage());
+            }
+        }, progress, 1000);
+
+        return moved.get();
+    }
+
+    /**
+     * Moves a single flat file into its shard, used for journals of players joining
+     * before a migration got to them.
+     */
+    public static boolean migrate(File f) throws IOException {
+        UUID id = parse(f);
+
+        if(id == null || !f.exists()) {
+            return false;
+        }
+
+        File to = locate(id, f.getName().substring(36), true);
+
+        if(to.exists() && to.lastModified() >= f.lastModified()) {
+            Files.deleteIfExists(f.toPath());
+            return true;
+        }
+
+        to.getParentFile().mkdirs();
+
+        try {
+            Files.move(f.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(f.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return true;
+    }
+
+    private static UUID parse(File f) {
+        String name = f.getName();
+
+        for(String i : EXTENSIONS) {
+            if(name.length() == 36 + i.length() && name.endsWith(i)) {
+                try {
+                    return UUID.fromString(name.substring(0, 36));
+                } catch(IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void quarantine(File f, Throwable e) {
+        File to = new File(f.getParentFile(), f.getName() + ".corrupt-" + M.ms());
+        Adapt.error("Failed to read " + f.getPath() + ", moved it to " + to.getName());
+
+        if(e != null) {
+            e.printStackTrace();
+        }
+
+        if(!f.renameTo(to)) {
+            Adapt.error("Could not move " + f.getPath() + " aside, it will be overwritten on the next save");
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.volmit.adapt.util.IO;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The one Gson everything in Adapt shares. Player data goes through the hand
+ * written {@link PlayerDataAdapters}, configs through Gson's own adapters which it
+ * builds once per class and caches. Files are written straight from the object to
+ * an indented {@link JsonWriter}, no intermediate strings.
+ */
+public final class Json {
+    public static final Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(new PlayerDataAdapters())
+        .disableHtmlEscaping()
+        .create();
+
+    private Json() {
+
+    }
+
+    public static <T> T read(File f, Type type) throws IOException {
+        try(JsonReader r = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(f), StandardCharsets.UTF_8)))) {
+            return gson.fromJson(r, type);
+        } catch(RuntimeException e) {
+            throw new IOException("Failed to parse " + f.getPath(), e);
+        }
+    }
+
+    public static byte[] toBytes(Object o) throws IOException {
+        ByteArrayOutputStream boas = new ByteArrayOutputStream(4096);
+
+        try(Writer w = new OutputStreamWriter(boas, StandardCharsets.UTF_8)) {
+            write(w, o);
+        }
+
+        return boas.toByteArray();
+    }
+
+    public static void write(File f, Object o) throws IOException {
+        IO.writeAtomic(f, toBytes(o));
+    }
+
+    private static void write(Writer w, Object o) throws IOException {
+        JsonWriter j = new JsonWriter(w);
+        j.setIndent("    ");
+
+        try {
+            gson.toJson(o, o.getClass(), j);
+        } catch(RuntimeException e) {
+            throw new IOException(e);
+        }
+
+        j.flush();
+    }
+}
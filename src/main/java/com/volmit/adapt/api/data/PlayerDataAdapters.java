@@ -0,0 +1,538 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.volmit.adapt.api.world.Discovery;
+import com.volmit.adapt.api.world.PlayerAdaptation;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+import com.volmit.adapt.api.world.Stat;
+import com.volmit.adapt.api.xp.XPMultiplier;
+import com.volmit.adapt.api.xp.XPMultiplierStack;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.entity.EntityType;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hand written adapters for player data, reading and writing the same json Gson's
+ * reflective adapters produced so existing files keep loading. Unknown fields are
+ * skipped.
+ */
+public class PlayerDataAdapters implements TypeAdapterFactory {
+    private static final TypeToken<Map<String, Object>> STORAGE = new TypeToken<Map<String, Object>>() {};
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> raw = type.getRawType();
+
+        if(raw == PlayerData.class) {
+            return (TypeAdapter<T>) new PlayerDataAdapter(gson);
+        }
+
+        if(raw == PlayerSkillLine.class) {
+            return (TypeAdapter<T>) new SkillLineAdapter(gson);
+        }
+
+        if(raw == PlayerAdaptation.class) {
+            return (TypeAdapter<T>) new AdaptationAdapter(gson);
+        }
+
+        if(raw == XPMultiplier.class) {
+            return (TypeAdapter<T>) new MultiplierAdapter();
+        }
+
+        if(raw == Discovery.class) {
+            Type element = type.getType() instanceof ParameterizedType p ? p.getActualTypeArguments()[0] : String.class;
+            return (TypeAdapter<T>) new DiscoveryAdapter<>(gson.getAdapter(TypeToken.get(element)), TypeToken.get(element).getRawType());
+        }
+
+        return null;
+    }
+
+    private static XPMultiplierStack readMultipliers(JsonReader in, TypeAdapter<XPMultiplier> adapter) throws IOException {
+        XPMultiplierStack m = new XPMultiplierStack();
+        in.beginArray();
+
+        while(in.hasNext()) {
+            XPMultiplier x = adapter.read(in);
+
+            if(x != null) {
+                m.add(x);
+            }
+        }
+
+        in.endArray();
+        return m;
+    }
+
+    private static void writeMultipliers(JsonWriter out, XPMultiplierStack multipliers, TypeAdapter<XPMultiplier> adapter) throws IOException {
+        out.beginArray();
+
+        for(XPMultiplier i : multipliers) {
+            adapter.write(out, i);
+        }
+
+        out.endArray();
+    }
+
+    private static boolean skipNull(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return true;
+        }
+
+        return false;
+    }
+
+    private static class PlayerDataAdapter extends TypeAdapter<PlayerData> {
+        private final TypeAdapter<PlayerSkillLine> lines;
+        private final TypeAdapter<XPMultiplier> multipliers;
+        private final TypeAdapter<Discovery<Biome>> biomes;
+        private final TypeAdapter<Discovery<EntityType>> mobs;
+        private final TypeAdapter<Discovery<Material>> materials;
+        private final TypeAdapter<Discovery<String>> strings;
+        private final TypeAdapter<Discovery<World.Environment>> environments;
+
+        PlayerDataAdapter(Gson gson) {
+            lines = gson.getAdapter(PlayerSkillLine.class);
+            multipliers = gson.getAdapter(XPMultiplier.class);
+            biomes = gson.getAdapter(new TypeToken<Discovery<Biome>>() {});
+            mobs = gson.getAdapter(new TypeToken<Discovery<EntityType>>() {});
+            materials = gson.getAdapter(new TypeToken<Discovery<Material>>() {});
+            strings = gson.getAdapter(new TypeToken<Discovery<String>>() {});
+            environments = gson.getAdapter(new TypeToken<Discovery<World.Environment>>() {});
+        }
+
+        @Override
+        public void write(JsonWriter out, PlayerData d) throws IOException {
+            if(d == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("skillLines").beginObject();
+
+            for(Map.Entry<String, PlayerSkillLine> i : d.getSkillLines().entrySet()) {
+                out.name(i.getKey());
+                lines.write(out, i.getValue());
+            }
+
+            out.endObject();
+            out.name("stats").beginObject();
+
+            for(Map.Entry<String, Double> i : d.getStats().toMap().entrySet()) {
+                out.name(i.getKey()).value(i.getValue());
+            }
+
+            out.endObject();
+            out.name("last").value(d.getLast());
+            out.name("advancements").beginArray();
+
+            for(String i : d.getAdvancements()) {
+                out.value(i);
+            }
+
+            out.endArray();
+            out.name("seenBiomes");
+            biomes.write(out, d.getSeenBiomes());
+            out.name("seenMobs");
+            mobs.write(out, d.getSeenMobs());
+            out.name("seenFoods");
+            materials.write(out, d.getSeenFoods());
+            out.name("seenItems");
+            materials.write(out, d.getSeenItems());
+            out.name("seenRecipes");
+            strings.write(out, d.getSeenRecipes());
+            out.name("seenEnchants");
+            strings.write(out, d.getSeenEnchants());
+            out.name("seenWorlds");
+            strings.write(out, d.getSeenWorlds());
+            out.name("seenPeople");
+            strings.write(out, d.getSeenPeople());
+            out.name("seenEnvironments");
+            environments.write(out, d.getSeenEnvironments());
+            out.name("seenPotionEffects");
+            strings.write(out, d.getSeenPotionEffects());
+            out.name("seenBlocks");
+            strings.write(out, d.getSeenBlocks());
+            out.name("multipliers");
+            writeMultipliers(out, d.getMultipliers(), multipliers);
+            out.name("wisdom").value(d.getWisdom());
+            out.name("multiplier").value(d.getMultiplier());
+            out.name("lastLogin").value(d.getLastLogin());
+            out.name("masterXp").value(d.getMasterXp());
+            out.name("lastMasterXp").value(d.getLastMasterXp());
+            out.name("journalSeq").value(d.getJournalSeq());
+            out.endObject();
+        }
+
+        @Override
+        public PlayerData read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+
+            PlayerData d = new PlayerData();
+            in.beginObject();
+
+            while(in.hasNext()) {
+                String name = in.nextName();
+
+                if(skipNull(in)) {
+                    continue;
+                }
+
+                switch(name) {
+                    case "skillLines" -> {
+                        in.beginObject();
+
+                        while(in.hasNext()) {
+                            String key = in.nextName();
+                            PlayerSkillLine l = lines.read(in);
+
+                            if(l != null) {
+                                d.getSkillLines().put(key, l);
+                            }
+                        }
+
+                        in.endObject();
+                    }
+                    case "stats" -> {
+                        in.beginObject();
+
+                        while(in.hasNext()) {
+                            d.getStats().set(Stat.of(in.nextName()), in.nextDouble());
+                        }
+
+                        in.endObject();
+                    }
+                    case "last" -> d.setLast(in.nextString());
+                    case "advancements" -> {
+                        in.beginArray();
+
+                        while(in.hasNext()) {
+                            d.getAdvancements().add(in.nextString());
+                        }
+
+                        in.endArray();
+                    }
+                    case "seenBiomes" -> d.setSeenBiomes(biomes.read(in));
+                    case "seenMobs" -> d.setSeenMobs(mobs.read(in));
+                    case "seenFoods" -> d.setSeenFoods(materials.read(in));
+                    case "seenItems" -> d.setSeenItems(materials.read(in));
+                    case "seenRecipes" -> d.setSeenRecipes(strings.read(in));
+                    case "seenEnchants" -> d.setSeenEnchants(strings.read(in));
+                    case "seenWorlds" -> d.setSeenWorlds(strings.read(in));
+                    case "seenPeople" -> d.setSeenPeople(strings.read(in));
+                    case "seenEnvironments" -> d.setSeenEnvironments(environments.read(in));
+                    case "seenPotionEffects" -> d.setSeenPotionEffects(strings.read(in));
+                    case "seenBlocks" -> d.setSeenBlocks(strings.read(in));
+                    case "multipliers" -> d.setMultipliers(readMultipliers(in, multipliers));
+                    case "wisdom" -> d.setWisdom(in.nextLong());
+                    case "multiplier" -> d.setMultiplier(in.nextDouble());
+                    case "lastLogin" -> d.setLastLogin(in.nextLong());
+                    case "masterXp" -> d.setMasterXp(in.nextDouble());
+                    case "lastMasterXp" -> d.setLastMasterXp(in.nextDouble());
+                    case "journalSeq" -> d.setJournalSeq(in.nextLong());
+                    default -> in.skipValue();
+                }
+            }
+
+            in.endObject();
+            return d;
+        }
+    }
+
+    private static class SkillLineAdapter extends TypeAdapter<PlayerSkillLine> {
+        private final TypeAdapter<Map<String, Object>> storage;
+        private final TypeAdapter<PlayerAdaptation> adaptations;
+        private final TypeAdapter<XPMultiplier> multipliers;
+
+        SkillLineAdapter(Gson gson) {
+            storage = gson.getAdapter(STORAGE);
+            adaptations = gson.getAdapter(PlayerAdaptation.class);
+            multipliers = gson.getAdapter(XPMultiplier.class);
+        }
+
+        @Override
+        public void write(JsonWriter out, PlayerSkillLine l) throws IOException {
+            if(l == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("line").value(l.getLine());
+            out.name("xp").value(l.getXp());
+            out.name("lastXP").value(l.getLastXP());
+            out.name("knowledge").value(l.getKnowledge());
+            out.name("multiplier").value(l.getMultiplier());
+            out.name("freshness").value(l.getFreshness());
+            out.name("rfreshness").value(l.getRfreshness());
+            out.name("lastLevel").value(l.getLastLevel());
+            out.name("last").value(l.getLast());
+            out.name("storage");
+            storage.write(out, l.getStorage());
+            out.name("adaptations").beginObject();
+
+            for(Map.Entry<String, PlayerAdaptation> i : l.getAdaptations().entrySet()) {
+                out.name(i.getKey());
+                adaptations.write(out, i.getValue());
+            }
+
+            out.endObject();
+            out.name("multipliers");
+            writeMultipliers(out, l.getMultipliers(), multipliers);
+            out.endObject();
+        }
+
+        @Override
+        public PlayerSkillLine read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+
+            PlayerSkillLine l = new PlayerSkillLine();
+            in.beginObject();
+
+            while(in.hasNext()) {
+                String name = in.nextName();
+
+                if(skipNull(in)) {
+                    continue;
+                }
+
+                switch(name) {
+                    case "line" -> l.setLine(in.nextString());
+                    case "xp" -> l.setXp(in.nextDouble());
+                    case "lastXP" -> l.setLastXP(in.nextDouble());
+                    case "knowledge" -> l.setKnowledge(in.nextLong());
+                    case "multiplier" -> l.setMultiplier(in.nextDouble());
+                    case "freshness" -> l.setFreshness(in.nextDouble());
+                    case "rfreshness" -> l.setRfreshness(in.nextDouble());
+                    case "lastLevel" -> l.setLastLevel(in.nextInt());
+                    case "last" -> l.setLast(in.nextLong());
+                    case "storage" -> {
+                        Map<String, Object> m = storage.read(in);
+                        l.setStorage(m == null ? new HashMap<>() : new HashMap<>(m));
+                    }
+                    case "adaptations" -> {
+                        in.beginObject();
+
+                        while(in.hasNext()) {
+                            String key = in.nextName();
+                            PlayerAdaptation a = adaptations.read(in);
+
+                            if(a != null) {
+                                l.getAdaptations().put(key, a);
+                            }
+                        }
+
+                        in.endObject();
+                    }
+                    case "multipliers" -> l.setMultipliers(readMultipliers(in, multipliers));
+                    default -> in.skipValue();
+                }
+            }
+
+            in.endObject();
+            return l;
+        }
+    }
+
+    private static class AdaptationAdapter extends TypeAdapter<PlayerAdaptation> {
+        private final TypeAdapter<Map<String, Object>> storage;
+
+        AdaptationAdapter(Gson gson) {
+            storage = gson.getAdapter(STORAGE);
+        }
+
+        @Override
+        public void write(JsonWriter out, PlayerAdaptation a) throws IOException {
+            if(a == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("id").value(a.getId());
+            out.name("level").value(a.getLevel());
+            out.name("storage");
+            storage.write(out, a.getStorage());
+            out.endObject();
+        }
+
+        @Override
+        public PlayerAdaptation read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+
+            PlayerAdaptation a = new PlayerAdaptation();
+            in.beginObject();
+
+            while(in.hasNext()) {
+                String name = in.nextName();
+
+                if(skipNull(in)) {
+                    continue;
+                }
+
+                switch(name) {
+                    case "id" -> a.setId(in.nextString());
+                    case "level" -> a.setLevel(in.nextInt());
+                    case "storage" -> {
+                        Map<String, Object> m = storage.read(in);
+                        a.setStorage(m == null ? new HashMap<>() : new HashMap<>(m));
+                    }
+                    default -> in.skipValue();
+                }
+            }
+
+            in.endObject();
+            return a;
+        }
+    }
+
+    private static class MultiplierAdapter extends TypeAdapter<XPMultiplier> {
+        @Override
+        public void write(JsonWriter out, XPMultiplier m) throws IOException {
+            if(m == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("multiplier").value(m.getMultiplier());
+            out.name("goodFor").value(m.getGoodFor());
+            out.endObject();
+        }
+
+        @Override
+        public XPMultiplier read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+
+            XPMultiplier m = new XPMultiplier();
+            in.beginObject();
+
+            while(in.hasNext()) {
+                String name = in.nextName();
+
+                if(skipNull(in)) {
+                    continue;
+                }
+
+                switch(name) {
+                    case "multiplier" -> m.setMultiplier(in.nextDouble());
+                    case "goodFor" -> m.setGoodFor(in.nextLong());
+                    default -> in.skipValue();
+                }
+            }
+
+            in.endObject();
+            return m;
+        }
+    }
+
+    /**
+     * Keeps the {"seen": [...]} shape. Entries that no longer parse, like a material
+     * removed by an update, are dropped.
+     */
+    private static class DiscoveryAdapter<E> extends TypeAdapter<Discovery<E>> {
+        private final TypeAdapter<E> element;
+        private final Class<E> type;
+
+        @SuppressWarnings("unchecked")
+        DiscoveryAdapter(TypeAdapter<E> element, Class<?> type) {
+            this.element = element;
+            this.type = (Class<E>) type;
+        }
+
+        @Override
+        public void write(JsonWriter out, Discovery<E> d) throws IOException {
+            if(d == null) {
+                out.nullValue();
+                return;
+            }
+
+            out.beginObject();
+            out.name("seen").beginArray();
+
+            for(E i : d.getSeen()) {
+                element.write(out, i);
+            }
+
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public Discovery<E> read(JsonReader in) throws IOException {
+            if(skipNull(in)) {
+                return null;
+            }
+
+            Discovery<E> d = Discovery.of(type);
+            in.beginObject();
+
+            while(in.hasNext()) {
+                if(!in.nextName().equals("seen")) {
+                    in.skipValue();
+                    continue;
+                }
+
+                if(skipNull(in)) {
+                    continue;
+                }
+
+                in.beginArray();
+
+                while(in.hasNext()) {
+                    E e = element.read(in);
+
+                    if(e != null) {
+                        d.getSeen().add(e);
+                    }
+                }
+
+                in.endArray();
+            }
+
+            in.endObject();
+            return d;
+        }
+    }
+}
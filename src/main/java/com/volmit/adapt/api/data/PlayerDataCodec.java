@@ -0,0 +1,469 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.google.gson.reflect.TypeToken;
+import com.volmit.adapt.api.world.Discovery;
+import com.volmit.adapt.api.world.PlayerAdaptation;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+import com.volmit.adapt.api.world.Stat;
+import com.volmit.adapt.api.xp.XPMultiplier;
+import com.volmit.adapt.api.xp.XPMultiplierStack;
+import com.volmit.adapt.util.J;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.entity.EntityType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compact binary form of {@link PlayerData}. Every string (skill lines, stat keys,
+ * discovered materials and so on) is written once into a dictionary at the head of
+ * the file and referenced by a varint index everywhere else. Enum constants go
+ * through the same dictionary by name rather than by ordinal, so files survive
+ * Bukkit adding or reordering materials between versions.
+ */
+public final class PlayerDataCodec {
+    public static final int MAGIC = 0x41445054;
+    public static final int VERSION = 3;
+    private static final Type STORAGE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private PlayerDataCodec() {
+
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length >= 4 && ((data[0] & 0xFF) << 24 | (data[1] & 0xFF) << 16 | (data[2] & 0xFF) << 8 | (data[3] & 0xFF)) == MAGIC;
+    }
+
+    public static byte[] encode(PlayerData data) throws IOException {
+        Writer w = new Writer();
+        w.varint(data.getSkillLines().size());
+
+        for(Map.Entry<String, PlayerSkillLine> i : data.getSkillLines().entrySet()) {
+            w.string(i.getKey());
+            writeSkillLine(w, i.getValue());
+        }
+
+        writeStats(w, data);
+        w.string(data.getLast());
+        writeAdvancements(w, data);
+        writeDiscoveries(w, data);
+        writeMultipliers(w, data.getMultipliers());
+        w.varlong(data.getWisdom());
+        w.out.writeDouble(data.getMultiplier());
+        w.varlong(data.getLastLogin());
+        w.out.writeDouble(data.getMasterXp());
+        w.out.writeDouble(data.getLastMasterXp());
+        w.varlong(data.getJournalSeq());
+        return w.finish();
+    }
+
+    public static PlayerData decode(byte[] bytes) throws IOException {
+        Reader r = new Reader(bytes);
+        PlayerData data = new PlayerData();
+
+        for(int i = r.varint(); i > 0; i--) {
+            String key = r.string();
+            data.getSkillLines().put(key, readSkillLine(r));
+        }
+
+        readStats(r, data);
+        data.setLast(r.string());
+        readAdvancements(r, data);
+        readDiscoveries(r, data);
+        data.setMultipliers(readMultipliers(r));
+        data.setWisdom(r.varlong());
+        data.setMultiplier(r.in.readDouble());
+        data.setLastLogin(r.varlong());
+        data.setMasterXp(r.in.readDouble());
+        data.setLastMasterXp(r.in.readDouble());
+
+        if(r.version >= 2) {
+            data.setJournalSeq(r.varlong());
+        }
+
+        return data;
+    }
+
+    /**
+     * Everything stored directly on the player except stats and discoveries, which
+     * are segments of their own. Used by {@link SegmentedPlayerStore}.
+     */
+    public static byte[] encodeCore(PlayerData data) throws IOException {
+        Writer w = new Writer();
+        w.string(data.getLast());
+        writeAdvancements(w, data);
+        writeMultipliers(w, data.getMultipliers());
+        w.varlong(data.getWisdom());
+        w.out.writeDouble(data.getMultiplier());
+        w.varlong(data.getLastLogin());
+        w.out.writeDouble(data.getMasterXp());
+        w.out.writeDouble(data.getLastMasterXp());
+        return w.finish();
+    }
+
+    public static void decodeCore(byte[] bytes, PlayerData data) throws IOException {
+        Reader r = new Reader(bytes);
+        data.setLast(r.string());
+        readAdvancements(r, data);
+        data.setMultipliers(readMultipliers(r));
+        data.setWisdom(r.varlong());
+        data.setMultiplier(r.in.readDouble());
+        data.setLastLogin(r.varlong());
+        data.setMasterXp(r.in.readDouble());
+        data.setLastMasterXp(r.in.readDouble());
+    }
+
+    public static byte[] encodeStats(PlayerData data) throws IOException {
+        Writer w = new Writer();
+        writeStats(w, data);
+        return w.finish();
+    }
+
+    public static void decodeStats(byte[] bytes, PlayerData data) throws IOException {
+        readStats(new Reader(bytes), data);
+    }
+
+    public static byte[] encodeDiscoveries(PlayerData data) throws IOException {
+        Writer w = new Writer();
+        writeDiscoveries(w, data);
+        return w.finish();
+    }
+
+    public static void decodeDiscoveries(byte[] bytes, PlayerData data) throws IOException {
+        readDiscoveries(new Reader(bytes), data);
+    }
+
+    public static byte[] encodeSkillLine(PlayerSkillLine line) throws IOException {
+        Writer w = new Writer();
+        writeSkillLine(w, line);
+        return w.finish();
+    }
+
+    public static PlayerSkillLine decodeSkillLine(byte[] bytes) throws IOException {
+        return readSkillLine(new Reader(bytes));
+    }
+
+    private static void writeStats(Writer w, PlayerData data) throws IOException {
+        Map<String, Double> stats = data.getStats().toMap();
+        w.varint(stats.size());
+
+        for(Map.Entry<String, Double> i : stats.entrySet()) {
+            w.string(i.getKey());
+            w.out.writeDouble(i.getValue());
+        }
+    }
+
+    private static void readStats(Reader r, PlayerData data) throws IOException {
+        for(int i = r.varint(); i > 0; i--) {
+            data.getStats().set(Stat.of(r.string()), r.in.readDouble());
+        }
+    }
+
+    private static void writeAdvancements(Writer w, PlayerData data) throws IOException {
+        w.varint(data.getAdvancements().size());
+
+        for(String i : data.getAdvancements()) {
+            w.string(i);
+        }
+    }
+
+    private static void readAdvancements(Reader r, PlayerData data) throws IOException {
+        for(int i = r.varint(); i > 0; i--) {
+            data.getAdvancements().add(r.string());
+        }
+    }
+
+    private static void writeDiscoveries(Writer w, PlayerData data) throws IOException {
+        for(Discovery<?> i : discoveries(data)) {
+            List<Object> seen = new ArrayList<>(i.getSeen());
+            w.varint(seen.size());
+
+            for(Object j : seen) {
+                w.string(j instanceof Enum ? ((Enum<?>) j).name() : String.valueOf(j));
+            }
+        }
+    }
+
+    private static void readDiscoveries(Reader r, PlayerData data) throws IOException {
+        readDiscovery(r, data.getSeenBiomes(), n -> J.attempt(() -> Biome.valueOf(n), null));
+        readDiscovery(r, data.getSeenMobs(), n -> J.attempt(() -> EntityType.valueOf(n), null));
+        readDiscovery(r, data.getSeenFoods(), n -> J.attempt(() -> Material.valueOf(n), null));
+        readDiscovery(r, data.getSeenItems(), n -> J.attempt(() -> Material.valueOf(n), null));
+        readDiscovery(r, data.getSeenRecipes(), n -> n);
+        readDiscovery(r, data.getSeenEnchants(), n -> n);
+        readDiscovery(r, data.getSeenWorlds(), n -> n);
+        readDiscovery(r, data.getSeenPeople(), n -> n);
+        readDiscovery(r, data.getSeenEnvironments(), n -> J.attempt(() -> World.Environment.valueOf(n), null));
+        readDiscovery(r, data.getSeenPotionEffects(), n -> n);
+        readDiscovery(r, data.getSeenBlocks(), n -> n);
+    }
+
+    /**
+     * Must list discoveries in the same order {@link #readDiscoveries(Reader, PlayerData)} reads them.
+     */
+    private static List<Discovery<?>> discoveries(PlayerData data) {
+        return List.of(data.getSeenBiomes(), data.getSeenMobs(), data.getSeenFoods(), data.getSeenItems(), data.getSeenRecipes(),
+            data.getSeenEnchants(), data.getSeenWorlds(), data.getSeenPeople(), data.getSeenEnvironments(), data.getSeenPotionEffects(), data.getSeenBlocks());
+    }
+
+    private static <T> void readDiscovery(Reader r, Discovery<T> d, Function<String, T> parse) throws IOException {
+        for(int i = r.varint(); i > 0; i--) {
+            T t = parse.apply(r.string());
+
+            if(t != null) {
+                d.getSeen().add(t);
+            }
+        }
+    }
+
+    private static void writeSkillLine(Writer w, PlayerSkillLine l) throws IOException {
+        w.string(l.getLine());
+        w.out.writeDouble(l.getXp());
+        w.out.writeDouble(l.getLastXP());
+        w.varlong(l.getKnowledge());
+        w.out.writeDouble(l.getMultiplier());
+        w.out.writeDouble(l.getFreshness());
+        w.out.writeDouble(l.getRfreshness());
+        w.varlong(l.getLastLevel());
+        w.varlong(l.getLast());
+        writeStorage(w, l.getStorage());
+        w.varint(l.getAdaptations().size());
+
+        for(Map.Entry<String, PlayerAdaptation> i : l.getAdaptations().entrySet()) {
+            w.string(i.getKey());
+            w.string(i.getValue().getId());
+            w.varint(i.getValue().getLevel());
+            writeStorage(w, i.getValue().getStorage());
+        }
+
+        writeMultipliers(w, l.getMultipliers());
+    }
+
+    private static PlayerSkillLine readSkillLine(Reader r) throws IOException {
+        PlayerSkillLine l = new PlayerSkillLine();
+        l.setLine(r.string());
+        l.setXp(r.in.readDouble());
+        l.setLastXP(r.in.readDouble());
+        l.setKnowledge(r.varlong());
+        l.setMultiplier(r.in.readDouble());
+        l.setFreshness(r.in.readDouble());
+        l.setRfreshness(r.in.readDouble());
+        l.setLastLevel((int) r.varlong());
+        l.setLast(r.varlong());
+        l.setStorage(readStorage(r));
+
+        for(int i = r.varint(); i > 0; i--) {
+            String key = r.string();
+            PlayerAdaptation a = new PlayerAdaptation();
+            a.setId(r.string());
+            a.setLevel(r.varint());
+            a.setStorage(readStorage(r));
+            l.getAdaptations().put(key, a);
+        }
+
+        l.setMultipliers(readMultipliers(r));
+        return l;
+    }
+
+    private static void writeMultipliers(Writer w, XPMultiplierStack multipliers) throws IOException {
+        List<XPMultiplier> m = multipliers.toList();
+        w.varint(m.size());
+
+        for(XPMultiplier i : m) {
+            w.out.writeDouble(i.getMultiplier());
+            w.varlong(i.getGoodFor());
+        }
+    }
+
+    private static XPMultiplierStack readMultipliers(Reader r) throws IOException {
+        int size = r.varint();
+        XPMultiplierStack m = new XPMultiplierStack();
+
+        for(int i = 0; i < size; i++) {
+            XPMultiplier x = new XPMultiplier();
+            x.setMultiplier(r.in.readDouble());
+            x.setGoodFor(r.varlong());
+            m.add(x);
+        }
+
+        return m;
+    }
+
+    /**
+     * Adaptation storage holds arbitrary values, it stays json inside the binary file
+     * so it round trips exactly like it did before.
+     */
+    private static void writeStorage(Writer w, Map<String, Object> storage) throws IOException {
+        w.string(storage == null || storage.isEmpty() ? null : Json.gson.toJson(storage));
+    }
+
+    private static Map<String, Object> readStorage(Reader r) throws IOException {
+        String s = r.string();
+        Map<String, Object> m = s == null ? null : Json.gson.fromJson(s, STORAGE);
+        return m == null ? new HashMap<>() : m;
+    }
+
+    private static class Writer {
+        private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(body);
+
+        void string(String s) throws IOException {
+            if(s == null) {
+                varint(0);
+                return;
+            }
+
+            Integer id = dictionary.get(s);
+
+            if(id == null) {
+                id = dictionary.size() + 1;
+                dictionary.put(s, id);
+            }
+
+            varint(id);
+        }
+
+        void varint(int v) throws IOException {
+            varint(out, v);
+        }
+
+        void varlong(long v) throws IOException {
+            long z = (v << 1) ^ (v >> 63);
+
+            while((z & ~0x7FL) != 0) {
+                out.writeByte((int) ((z & 0x7F) | 0x80));
+                z >>>= 7;
+            }
+
+            out.writeByte((int) z);
+        }
+
+        byte[] finish() throws IOException {
+            ByteArrayOutputStream boas = new ByteArrayOutputStream(body.size() + dictionary.size() * 16 + 16);
+            DataOutputStream d = new DataOutputStream(boas);
+            d.writeInt(MAGIC);
+            varint(d, VERSION);
+            varint(d, dictionary.size());
+
+            // Length prefixed utf-8 rather than writeUTF, storage json can pass its 64KB limit
+            for(String i : dictionary.keySet()) {
+                byte[] utf = i.getBytes(StandardCharsets.UTF_8);
+                varint(d, utf.length);
+                d.write(utf);
+            }
+
+            out.flush();
+            body.writeTo(d);
+            d.flush();
+            return boas.toByteArray();
+        }
+
+        private static void varint(DataOutputStream d, int v) throws IOException {
+            while((v & ~0x7F) != 0) {
+                d.writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+
+            d.writeByte(v);
+        }
+    }
+
+    private static class Reader {
+        private final DataInputStream in;
+        private final String[] dictionary;
+        private final int version;
+
+        Reader(byte[] bytes) throws IOException {
+            in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+            if(in.readInt() != MAGIC) {
+                throw new IOException("Not an adapt player file");
+            }
+
+            version = varint();
+
+            if(version > VERSION) {
+                throw new IOException("Player file version " + version + " is newer than supported version " + VERSION);
+            }
+
+            dictionary = new String[varint()];
+
+            for(int i = 0; i < dictionary.length; i++) {
+                if(version >= 3) {
+                    byte[] utf = new byte[varint()];
+                    in.readFully(utf);
+                    dictionary[i] = new String(utf, StandardCharsets.UTF_8);
+                } else {
+                    dictionary[i] = in.readUTF();
+                }
+            }
+        }
+
+        String string() throws IOException {
+            int id = varint();
+            return id == 0 ? null : dictionary[id - 1];
+        }
+
+        int varint() throws IOException {
+            int v = 0;
+
+            for(int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (b & 0x7F) << shift;
+
+                if((b & 0x80) == 0) {
+                    return v;
+                }
+            }
+
+            throw new IOException("Malformed varint");
+        }
+
+        long varlong() throws IOException {
+            long z = 0;
+
+            for(int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                z |= (long) (b & 0x7F) << shift;
+
+                if((b & 0x80) == 0) {
+                    return (z >>> 1) ^ -(z & 1);
+                }
+            }
+
+            throw new IOException("Malformed varlong");
+        }
+    }
+}
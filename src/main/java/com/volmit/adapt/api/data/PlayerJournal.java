@@ -0,0 +1,215 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.world.PlayerAdaptation;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+import com.volmit.adapt.util.IO;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Append only log of the xp, knowledge and adaptation changes made to a player since
+ * their last full save. Each entry is a tab separated line with a sequence number;
+ * the full save records the last sequence it contains, so after a crash only the
+ * entries newer than the save are replayed on top of it.
+ * <p>
+ * Changes are recorded and applied while holding this journal's monitor, and the
+ * writer serializes while holding it as well, so a save can never contain half of
+ * what the journal says about it.
+ */
+public class PlayerJournal {
+    private static final String XP = "xp";
+    private static final String KNOWLEDGE = "kn";
+    private static final String ADAPTATION = "ad";
+    private final File file;
+    private final StringBuilder buffer;
+    private long seq;
+
+    public PlayerJournal(File file, long seq) {
+        this.file = file;
+        this.buffer = new StringBuilder();
+        this.seq = seq;
+    }
+
+    public synchronized long getSeq() {
+        return seq;
+    }
+
+    public synchronized void xp(String line, double amount) {
+        append(XP, line, Double.toString(amount));
+    }
+
+    public synchronized void knowledge(String line, long amount) {
+        append(KNOWLEDGE, line, Long.toString(amount));
+    }
+
+    public synchronized void adaptation(String line, String adaptation, int level) {
+        append(ADAPTATION, line, adaptation + "\t" + level);
+    }
+
+    private void append(String op, String line, String value) {
+        buffer.append(++seq).append('\t').append(op).append('\t').append(line).append('\t').append(value).append('\n');
+    }
+
+    /**
+     * Appends buffered entries to the journal file.
+     */
+    public void flush() throws IOException {
+        String pending;
+
+        synchronized(this) {
+            if(buffer.length() == 0) {
+                return;
+            }
+
+            pending = buffer.toString();
+            buffer.setLength(0);
+        }
+
+        file.getParentFile().mkdirs();
+
+        try(FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write(pending.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Drops every entry a full save up to the given sequence already contains.
+     */
+    public void checkpoint(long savedSeq) throws IOException {
+        flush();
+
+        if(!file.exists()) {
+            return;
+        }
+
+        StringBuilder keep = new StringBuilder();
+
+        for(String i : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            long s = seqOf(i);
+
+            if(s > savedSeq) {
+                keep.append(i).append('\n');
+            }
+        }
+
+        if(keep.length() == 0) {
+            Files.deleteIfExists(file.toPath());
+        } else {
+            IO.writeAtomic(file, keep.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Opens the journal for a player, replaying anything newer than the loaded save
+     * onto it first.
+     */
+    public static PlayerJournal open(File file, PlayerData data) {
+        long seq = data.getJournalSeq();
+
+        if(file.exists()) {
+            try {
+                List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+                int replayed = 0;
+
+                for(String i : lines) {
+                    long s = seqOf(i);
+
+                    if(s <= data.getJournalSeq()) {
+                        seq = Math.max(seq, s);
+                        continue;
+                    }
+
+                    if(replay(data, i)) {
+                        replayed++;
+                        seq = Math.max(seq, s);
+                    }
+                }
+
+                if(replayed > 0) {
+                    data.markDirty();
+                    Adapt.warn("Replayed " + replayed + " journal entries from " + file.getName());
+                }
+            } catch(Throwable e) {
+                Adapt.error("Failed to replay " + file.getPath());
+                e.printStackTrace();
+            }
+        }
+
+        return new PlayerJournal(file, seq);
+    }
+
+    private static long seqOf(String entry) {
+        int tab = entry.indexOf('\t');
+
+        try {
+            return tab > 0 ? Long.parseLong(entry.substring(0, tab)) : -1;
+        } catch(NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Applies one entry. A partly written last line from a crash is skipped.
+     */
+    private static boolean replay(PlayerData data, String entry) {
+        String[] f = entry.split("\t");
+
+        if(f.length < 4) {
+            return false;
+        }
+
+        try {
+            PlayerSkillLine line = data.getSkillLines().computeIfAbsent(f[2], k -> {
+                PlayerSkillLine l = new PlayerSkillLine();
+                l.setLine(k);
+                return l;
+            });
+
+            switch(f[1]) {
+                case XP -> line.setXp(line.getXp() + Double.parseDouble(f[3]));
+                case KNOWLEDGE -> line.setKnowledge(line.getKnowledge() + Long.parseLong(f[3]));
+                case ADAPTATION -> {
+                    if(f.length < 5) {
+                        return false;
+                    }
+
+                    PlayerAdaptation a = new PlayerAdaptation();
+                    a.setId(f[3]);
+                    a.setLevel(Integer.parseInt(f[4]));
+                    line.getAdaptations().put(f[3], a);
+                }
+                default -> {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch(NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,645 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.AdaptConfig;
+import com.volmit.adapt.api.world.Discovery;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.util.Form;
+import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes player data behind the tick thread. Saves are queued per player and
+ * coalesced, so a player saved several times before the writer gets to them is
+ * only written once, with whatever their data looks like at that moment. Batches
+ * are serialized in one slice on the main thread and written on the writer. The
+ * queue is bounded, once it is full callers off the main thread wait up to a second
+ * for the writer to catch up. The main thread never waits, its saves (like quits)
+ * let the queue overshoot instead. Batches that fail to write are queued again.
+ * Everything waiting is handed to the {@link PlayerStore} in batches.
+ * <p> With journaling on, online players also get a
+ * {@link PlayerJournal} that the writer flushes every second, so a crash only loses
+ * that second instead of everything since the last full save.
+ */
+public class PlayerPersistence {
+    private static final int BATCH = 64;
+    private static final long MAX_WAIT = 1000;
+    private static final long RETRY_DELAY = 1000;
+    private static final long SNAPSHOT_POLL = 50;
+    @Getter
+    private final PlayerStore store;
+    private final Map<UUID, PlayerData> queue;
+    private final Map<UUID, PlayerData> writing;
+    private final int capacity;
+    private final boolean journaled;
+    private final Map<UUID, PlayerJournal> journals;
+    private final ConcurrentLinkedHashMap<UUID, PlayerData> cache;
+    private final Map<UUID, Staged> staged;
+    private final long cacheCapacity;
+    private final AtomicLong saves;
+    private final Thread writer;
+    private volatile boolean running;
+    @Getter
+    private final AtomicLong written;
+    @Getter
+    private final AtomicLong coalesced;
+    @Getter
+    private final AtomicLong bytesWritten;
+    @Getter
+    private final AtomicLong cacheHits;
+    @Getter
+    private final AtomicLong cacheMisses;
+    @Getter
+    private final AtomicLong prefetchHits;
+    @Getter
+    private final AtomicLong prefetchMisses;
+
+    public PlayerPersistence(PlayerStore store, int capacity, boolean journaled, long cacheKb) {
+        this.store = store;
+        this.capacity = Math.max(1, capacity);
+        this.journaled = journaled;
+        queue = new LinkedHashMap<>();
+        writing = new HashMap<>();
+        journals = new ConcurrentHashMap<>();
+        cacheCapacity = Math.max(1, cacheKb);
+        cache = new ConcurrentLinkedHashMap.Builder<UUID, PlayerData>()
+            .maximumWeightedCapacity(cacheCapacity)
+            .weigher(PlayerPersistence::weigh)
+            .build();
+        saves = new AtomicLong();
+        cacheHits = new AtomicLong();
+        cacheMisses = new AtomicLong();
+        staged = new ConcurrentHashMap<>();
+        prefetchHits = new AtomicLong();
+        prefetchMisses = new AtomicLong();
+        written = new AtomicLong();
+        coalesced = new AtomicLong();
+        bytesWritten = new AtomicLong();
+        running = true;
+        writer = new Thread(this::run, "Adapt Player Writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Journals always live next to the player files, whichever store holds the data.
+     * A journal left in the flat layout is moved into its shard first.
+     */
+    public File getJournalFile(UUID id) {
+        boolean sharded = AdaptConfig.get().isShardedPlayerFiles();
+
+        if(sharded) {
+            try {
+                FilePlayerStore.migrate(FilePlayerStore.locate(id, ".journal", false));
+            } catch(IOException e) {
+                Adapt.error("Failed to move the journal for " + id + " into its shard");
+                e.printStackTrace();
+            }
+        }
+
+        return FilePlayerStore.locate(id, ".journal", sharded);
+    }
+
+    public boolean isJournaled() {
+        return journaled;
+    }
+
+    /**
+     * Loads a player who is joining. Unlike {@link #load(UUID)} this replays and
+     * attaches their journal, so it must only be used for the live copy.
+     */
+    public PlayerData open(UUID id) throws IOException {
+        cache.remove(id);
+        return attach(id, load(id));
+    }
+
+    /**
+     * Opens the journal for the live copy of a player and starts flushing it. Only
+     * done once they actually join, a journal belongs to a single session.
+     */
+    private PlayerData attach(UUID id, PlayerData data) {
+        if(journaled) {
+            PlayerJournal j = data.getJournal();
+
+            if(j == null) {
+                j = PlayerJournal.open(getJournalFile(id), data);
+                data.setJournal(j);
+            }
+
+            journals.put(id, j);
+        }
+
+        return data;
+    }
+
+    /**
+     * Loads a player while they are still logging in, off the main thread. The join
+     * that follows picks the result up through {@link #claim(UUID, long)}. A save or
+     * release of the same player in between, like an older session being kicked by
+     * this login, drops the staged copy since it may no longer be the latest.
+     *
+     * @throws IOException if the store failed to read them, the login should be
+     *                     denied rather than letting them play on empty data
+     */
+    public void prefetch(UUID id) throws IOException {
+        Staged s = new Staged();
+        staged.put(id, s);
+
+        try {
+            cache.remove(id);
+            s.data.complete(load(id));
+        } catch(Throwable e) {
+            staged.remove(id, s);
+            s.data.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes the prefetched data for a joining player, waiting at most the given time
+     * for a prefetch that is still running. Falls back to {@link #open(UUID)} when
+     * nothing was staged, the prefetch failed or it took too long.
+     *
+     * @throws IOException if loading on join failed as well, the player must not
+     *                     play since their next save would replace what is stored
+     */
+    public PlayerData claim(UUID id, long timeoutMs) throws IOException {
+        Staged s = staged.remove(id);
+
+        if(s != null) {
+            try {
+                PlayerData data = s.data.get(timeoutMs, TimeUnit.MILLISECONDS);
+                prefetchHits.incrementAndGet();
+                return attach(id, data);
+            } catch(TimeoutException e) {
+                Adapt.warn("Prefetch for " + id + " did not finish in " + timeoutMs + "ms, loading on join");
+            } catch(Throwable e) {
+                Adapt.error("Prefetch for " + id + " failed, loading on join");
+                e.printStackTrace();
+            }
+        }
+
+        prefetchMisses.incrementAndGet();
+        return open(id);
+    }
+
+    /**
+     * Drops prefetches for logins that never turned into a join, e.g. denied by
+     * another plugin.
+     */
+    public void expireStaged(long maxAgeMs) {
+        staged.values().removeIf(i -> M.ms() - i.at > maxAgeMs);
+    }
+
+    /**
+     * Stops flushing a player's journal in the background once they left. Their
+     * final save still checkpoints it.
+     */
+    public void release(UUID id) {
+        journals.remove(id);
+        staged.remove(id);
+    }
+
+    /**
+     * Loads a player, preferring data that is still waiting to be written over the
+     * file on disk so a quick rejoin never reads a stale save. Only a player the store
+     * has never seen gets fresh data, a store that fails to read throws instead.
+     */
+    public PlayerData load(UUID id) throws IOException {
+        PlayerData pending = getPending(id);
+
+        if(pending != null) {
+            return pending;
+        }
+
+        return read(id);
+    }
+
+    /**
+     * Read through cache of offline players for lookups that happen often, like an
+     * offline owner's brewing stands. The returned data is shared, don't change it.
+     * If the store fails to read, the player looks empty to that lookup but nothing
+     * is cached, and since peeked data is never saved their record stays intact.
+     */
+    public PlayerData peek(UUID id) {
+        PlayerData pending = getPending(id);
+
+        if(pending != null) {
+            return pending;
+        }
+
+        PlayerData data = cache.get(id);
+
+        if(data != null) {
+            cacheHits.incrementAndGet();
+            return data;
+        }
+
+        cacheMisses.incrementAndGet();
+
+        try {
+            long generation = saves.get();
+            data = read(id);
+
+            synchronized(queue) {
+                pending = getPending(id);
+
+                if(pending != null) {
+                    return pending;
+                }
+
+                if(saves.get() == generation) {
+                    cache.put(id, data);
+                    return data;
+                }
+            }
+
+            // Something was saved while reading, the file may be older than it
+            return load(id);
+        } catch(IOException e) {
+            Adapt.error("Failed to peek player data for " + id + " from " + store.getName());
+            e.printStackTrace();
+            return new PlayerData();
+        }
+    }
+
+    private PlayerData getPending(UUID id) {
+        synchronized(queue) {
+            PlayerData pending = queue.get(id);
+            return pending != null ? pending : writing.get(id);
+        }
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    public long getCacheWeight() {
+        return cache.weightedSize();
+    }
+
+    /**
+     * Halves the offline cache when the heap is nearly full, then lets it grow back.
+     */
+    public void trimCache() {
+        Runtime r = Runtime.getRuntime();
+
+        if(cache.isEmpty() || r.totalMemory() - r.freeMemory() < r.maxMemory() * 0.9) {
+            return;
+        }
+
+        long before = cache.weightedSize();
+        cache.setCapacity(before / 2);
+        cache.setCapacity(cacheCapacity);
+        Adapt.verbose("Trimmed offline player cache from " + before + "KB to " + cache.weightedSize() + "KB under memory pressure");
+    }
+
+    /**
+     * Rough size in KB, dominated by discoveries on long time players.
+     */
+    private static int weigh(PlayerData data) {
+        long bytes = 512L + data.getSkillLines().size() * 256L + data.getStats().size() * 64L + data.getAdvancements().size() * 48L;
+
+        for(Discovery<?> i : data.getDiscoveries()) {
+            bytes += i.getSeen().size() * 48L;
+        }
+
+        return (int) Math.max(1, bytes / 1024);
+    }
+
+    private PlayerData read(UUID id) throws IOException {
+        PlayerData data = store.load(id);
+        return data != null ? data : new PlayerData();
+    }
+
+    /**
+     * Writes a player's current data as pretty printed json for inspection, whatever
+     * format it is stored in.
+     */
+    public File export(UUID id) throws IOException {
+        File f = Adapt.instance.getDataFile("data", "export", id + ".json");
+        Json.write(f, Adapt.instance.getAdaptServer().peekData(id));
+        return f;
+    }
+
+    /**
+     * Queues a player for writing. The cache entry is dropped under the queue lock
+     * together with counting the save, so a concurrent {@link #peek(UUID)} never
+     * caches a read that started before it.
+     */
+    public void save(UUID id, PlayerData data) {
+        staged.remove(id);
+
+        if(!running) {
+            synchronized(queue) {
+                saves.incrementAndGet();
+                cache.remove(id);
+            }
+
+            write(Map.of(id, data));
+            return;
+        }
+
+        synchronized(queue) {
+            saves.incrementAndGet();
+            PlayerData replaced = queue.put(id, data);
+            cache.remove(id);
+
+            if(replaced != null) {
+                coalesced.incrementAndGet();
+                return;
+            }
+
+            queue.notifyAll();
+
+            if(Bukkit.isPrimaryThread()) {
+                return;
+            }
+
+            long until = M.ms() + MAX_WAIT;
+
+            while(running && queue.size() > capacity && M.ms() < until) {
+                try {
+                    queue.wait(Math.max(1, until - M.ms()));
+                } catch(InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public int getQueued() {
+        synchronized(queue) {
+            return queue.size();
+        }
+    }
+
+    /**
+     * Lets the writer drain everything still queued and flush every journal, then
+     * waits for it to exit.
+     */
+    public void close() {
+        synchronized(queue) {
+            running = false;
+            queue.notifyAll();
+        }
+
+        try {
+            writer.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        store.close();
+        Adapt.verbose("Player writer closed after " + written.get() + " writes (" + Form.memSize(bytesWritten.get(), 1) + "), " + coalesced.get() + " coalesced");
+    }
+
+    private void run() {
+        while(true) {
+            Map<UUID, PlayerData> batch = new LinkedHashMap<>();
+
+            synchronized(queue) {
+                if(running && queue.isEmpty()) {
+                    try {
+                        queue.wait(journaled ? 1000 : 0);
+                    } catch(InterruptedException e) {
+                        return;
+                    }
+                }
+
+                if(queue.isEmpty()) {
+                    flushJournals();
+
+                    if(!running) {
+                        return;
+                    }
+
+                    continue;
+                }
+
+                Iterator<Map.Entry<UUID, PlayerData>> it = queue.entrySet().iterator();
+
+                while(it.hasNext() && batch.size() < BATCH) {
+                    Map.Entry<UUID, PlayerData> next = it.next();
+                    it.remove();
+                    batch.put(next.getKey(), next.getValue());
+                }
+
+                writing.putAll(batch);
+                queue.notifyAll();
+            }
+
+            write(batch);
+
+            synchronized(queue) {
+                writing.clear();
+            }
+        }
+    }
+
+    private void flushJournals() {
+        for(Map.Entry<UUID, PlayerJournal> i : journals.entrySet()) {
+            try {
+                i.getValue().flush();
+            } catch(Throwable e) {
+                Adapt.error("Failed to flush journal for " + i.getKey());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Snapshots the batch, then writes it in one go and checkpoints the journals once
+     * it is durable.
+     */
+    private void write(Map<UUID, PlayerData> batch) {
+        List<PlayerRecord> records = snapshot(batch);
+
+        if(records.isEmpty()) {
+            return;
+        }
+
+        try {
+            store.write(records);
+        } catch(Throwable e) {
+            Adapt.error("Failed to save " + records.size() + " players to " + store.getName() + (running ? ", retrying" : ""));
+            e.printStackTrace();
+
+            // Players who already quit are never saved again, so the records go back in the
+            // queue rather than relying on the dirty flag
+            for(PlayerRecord i : records) {
+                PlayerData data = batch.get(i.getId());
+                data.markDirty();
+
+                if(running) {
+                    requeue(i.getId(), data);
+                }
+            }
+
+            if(running) {
+                try {
+                    Thread.sleep(RETRY_DELAY);
+                } catch(InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return;
+        }
+
+        for(PlayerRecord i : records) {
+            written.incrementAndGet();
+            bytesWritten.addAndGet(i.getData().length);
+            PlayerJournal j = batch.get(i.getId()).getJournal();
+
+            if(j != null) {
+                try {
+                    j.checkpoint(i.getJournalSeq());
+                } catch(Throwable e) {
+                    Adapt.error("Failed to checkpoint journal for " + i.getId());
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Serializes the batch on the main thread, where nearly everything that changes
+     * player data runs, so no collection is read halfway through a change. Only the
+     * writing is left to the writer. While closing, the main thread is the one
+     * waiting on the writer, so the batch is serialized right away instead.
+     */
+    private List<PlayerRecord> snapshot(Map<UUID, PlayerData> batch) {
+        if(!running || Bukkit.isPrimaryThread()) {
+            return snapshotNow(batch);
+        }
+
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<List<PlayerRecord>> records = new CompletableFuture<>();
+        J.s(() -> {
+            if(claimed.compareAndSet(false, true)) {
+                try {
+                    records.complete(snapshotNow(batch));
+                } catch(Throwable e) {
+                    records.completeExceptionally(e);
+                }
+            }
+        });
+
+        while(true) {
+            try {
+                return records.get(SNAPSHOT_POLL, TimeUnit.MILLISECONDS);
+            } catch(TimeoutException e) {
+                // Shutting down while waiting, the task may never run
+                if(!running && claimed.compareAndSet(false, true)) {
+                    return snapshotNow(batch);
+                }
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+
+                if(claimed.compareAndSet(false, true)) {
+                    batch.forEach(this::requeue);
+                    return List.of();
+                }
+
+                return records.join();
+            } catch(ExecutionException e) {
+                Adapt.error("Failed to snapshot " + batch.size() + " players");
+                e.printStackTrace();
+                batch.forEach((id, data) -> {
+                    data.markDirty();
+                    requeue(id, data);
+                });
+                return List.of();
+            }
+        }
+    }
+
+    /**
+     * Snapshots every player under their own lock, which their tick holds while it
+     * changes their data, and under their journal lock so the recorded sequence
+     * matches what was serialized.
+     */
+    private List<PlayerRecord> snapshotNow(Map<UUID, PlayerData> batch) {
+        List<PlayerRecord> records = new ArrayList<>();
+
+        for(Map.Entry<UUID, PlayerData> i : batch.entrySet()) {
+            UUID id = i.getKey();
+            PlayerData data = i.getValue();
+
+            try {
+                synchronized(data) {
+                    PlayerJournal j = data.getJournal();
+
+                    if(j == null) {
+                        records.add(store.snapshot(id, data));
+                    } else {
+                        synchronized(j) {
+                            data.setJournalSeq(j.getSeq());
+                            records.add(store.snapshot(id, data));
+                        }
+                    }
+                }
+            } catch(Throwable e) {
+                data.markDirty();
+                Adapt.error("Failed to save player data for " + id);
+                e.printStackTrace();
+            }
+        }
+
+        return records;
+    }
+
+    /**
+     * Puts a player back at the end of the queue without waiting on capacity since
+     * the writer is the one draining it.
+     */
+    private void requeue(UUID id, PlayerData data) {
+        synchronized(queue) {
+            queue.putIfAbsent(id, data);
+        }
+    }
+
+    private static class Staged {
+        private final CompletableFuture<PlayerData> data = new CompletableFuture<>();
+        private final long at = M.ms();
+    }
+}
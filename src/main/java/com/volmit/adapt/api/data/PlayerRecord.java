@@ -0,0 +1,58 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A serialized player ready to be written, along with the per skill summary and
+ * master xp stores can index without decoding the data again. A delta record only holds what changed
+ * since the last write and is appended rather than replacing it.
+ */
+@AllArgsConstructor
+@Data
+public class PlayerRecord {
+    private UUID id;
+    private byte[] data;
+    private long journalSeq;
+    private List<SkillRow> skills;
+    private boolean delta;
+    private double masterXp;
+
+    public PlayerRecord(UUID id, byte[] data, long journalSeq, List<SkillRow> skills) {
+        this(id, data, journalSeq, skills, false, 0);
+    }
+
+    public PlayerRecord(UUID id, byte[] data, long journalSeq, List<SkillRow> skills, boolean delta) {
+        this(id, data, journalSeq, skills, delta, 0);
+    }
+
+    @AllArgsConstructor
+    @Data
+    public static class SkillRow {
+        private UUID id;
+        private String skill;
+        private int level;
+        private double xp;
+        private long knowledge;
+    }
+}
@@ -0,0 +1,59 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.api.world.PlayerData;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Where player data lives. {@link PlayerPersistence} handles queueing, caching and
+ * journaling on top of it, a store only has to read and write.
+ */
+public interface PlayerStore {
+    String getName();
+
+    /**
+     * @return the stored data or null if the player has never been saved
+     */
+    PlayerData load(UUID id) throws IOException;
+
+    /**
+     * Serializes a player for a later {@link #write(List)}. Runs on the main thread
+     * while the player and their journal are locked, so it should only encode and
+     * never touch the disk. Clears
+     * the dirty flags of whatever it serialized before doing so, anything that
+     * changes while encoding is then picked up by the next save.
+     */
+    PlayerRecord snapshot(UUID id, PlayerData data) throws IOException;
+
+    void write(List<PlayerRecord> records) throws IOException;
+
+    /**
+     * Every player this store has data for. Walks the whole store, meant for rare
+     * maintenance like rebuilding leaderboards.
+     */
+    Set<UUID> list() throws IOException;
+
+    default void close() {
+
+    }
+}
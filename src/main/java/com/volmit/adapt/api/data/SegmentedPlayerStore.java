@@ -0,0 +1,454 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.world.Discovery;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+import com.volmit.adapt.util.IO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Stores each player as a log of independently versioned segments: one per skill
+ * line, one for discoveries, one for stats and a small core segment for everything
+ * else. A save appends only the segments that changed since the last one, followed
+ * by a commit record. Segments after the last intact commit are ignored on load, so
+ * a crash mid append just loses that save.
+ * <p>
+ * Once the log grows past twice the size of its live segments it is rewritten in
+ * full. Players missing from the log are read from the fallback store.
+ * <p>
+ * What is known about each log belongs to the writer. A load only records what it
+ * read when no write finished or started in the meantime, so a read racing an
+ * append can't make the writer append to a log it doesn't know.
+ */
+public class SegmentedPlayerStore implements PlayerStore {
+    private static final int MAGIC = 0x41445053;
+    private static final byte CORE = 1;
+    private static final byte STATS = 2;
+    private static final byte DISCOVERIES = 3;
+    private static final byte LINE = 4;
+    private static final byte COMMIT = 5;
+    private final PlayerStore fallback;
+    private final boolean sharded;
+    private final Map<UUID, Log> logs;
+    private final Set<UUID> writing;
+    private final AtomicLong epoch;
+    @Getter
+    private final AtomicLong fullWrites;
+    @Getter
+    private final AtomicLong deltaWrites;
+
+    public SegmentedPlayerStore(PlayerStore fallback, boolean sharded) {
+        this.fallback = fallback;
+        this.sharded = sharded;
+        logs = new ConcurrentHashMap<>();
+        writing = ConcurrentHashMap.newKeySet();
+        epoch = new AtomicLong();
+        fullWrites = new AtomicLong();
+        deltaWrites = new AtomicLong();
+    }
+
+    @Override
+    public String getName() {
+        return "segmented files";
+    }
+
+    public File getFile(UUID id) {
+        return FilePlayerStore.locate(id, ".seg", sharded);
+    }
+
+    /**
+     * Finds the log in the configured layout, or in the flat one when sharding was
+     * turned on and the player was not migrated yet. The first save after that writes
+     * a full log into the shard.
+     */
+    private File find(UUID id) {
+        File f = getFile(id);
+
+        if(f.exists() || !sharded) {
+            return f;
+        }
+
+        File flat = FilePlayerStore.locate(id, ".seg", false);
+
+        // Checked once more in case a migration moved it into the shard meanwhile
+        return flat.exists() ? flat : getFile(id);
+    }
+
+    @Override
+    public PlayerData load(UUID id) throws IOException {
+        long seen = epoch.get();
+        File f = find(id);
+
+        if(!f.exists()) {
+            return fallback.load(id);
+        }
+
+        byte[] bytes;
+
+        try {
+            bytes = Files.readAllBytes(f.toPath());
+        } catch(NoSuchFileException e) {
+            f = find(id);
+            bytes = Files.readAllBytes(f.toPath());
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+        if(bytes.length < 4 || in.readInt() != MAGIC) {
+            throw new IOException("Not an adapt segment log " + f.getPath());
+        }
+
+        Map<String, Segment> staged = new HashMap<>();
+        Map<String, Segment> live = new HashMap<>();
+        Segment commit = null;
+        long valid = 4;
+
+        while(in.available() > 0) {
+            Segment s = Segment.read(in);
+
+            if(s == null) {
+                break;
+            }
+
+            if(s.type != COMMIT) {
+                staged.put(s.key(), s);
+                continue;
+            }
+
+            live.putAll(staged);
+            staged.clear();
+            commit = s;
+            valid = bytes.length - in.available();
+        }
+
+        if(commit == null) {
+            Adapt.warn("No intact save in " + f.getPath() + ", reading " + fallback.getName() + " instead");
+            track(id, seen, null);
+            return fallback.load(id);
+        }
+
+        PlayerData data = new PlayerData();
+        DataInputStream c = new DataInputStream(new ByteArrayInputStream(commit.data));
+        data.setJournalSeq(c.readLong());
+        long size = 4 + commit.size();
+
+        for(int i = c.readInt(); i > 0; i--) {
+            Segment s = live.get(LINE + ":" + c.readUTF());
+
+            if(s != null) {
+                PlayerSkillLine l = PlayerDataCodec.decodeSkillLine(s.data);
+                data.getSkillLines().put(s.name, l);
+                size += s.size();
+            }
+        }
+
+        for(byte i : new byte[] {CORE, STATS, DISCOVERIES}) {
+            Segment s = live.get(i + ":");
+
+            if(s == null) {
+                continue;
+            }
+
+            size += s.size();
+
+            if(i == CORE) {
+                PlayerDataCodec.decodeCore(s.data, data);
+            } else if(i == STATS) {
+                PlayerDataCodec.decodeStats(s.data, data);
+            } else {
+                PlayerDataCodec.decodeDiscoveries(s.data, data);
+            }
+        }
+
+        track(id, seen, valid == bytes.length ? new Log(commit.version, valid, size) : null);
+        return data;
+    }
+
+    /**
+     * Records what a load found, a null log meaning the next save has to rewrite it
+     * in full. Skipped while the writer has the player or once it wrote anything
+     * since the load began, as the read may have caught an append halfway or
+     * predate it.
+     */
+    private void track(UUID id, long seen, Log log) {
+        synchronized(logs) {
+            if(writing.contains(id) || epoch.get() != seen) {
+                return;
+            }
+
+            if(log == null) {
+                logs.remove(id);
+            } else {
+                logs.put(id, log);
+            }
+        }
+    }
+
+    @Override
+    public PlayerRecord snapshot(UUID id, PlayerData data) throws IOException {
+        Log log;
+
+        synchronized(logs) {
+            writing.add(id);
+            epoch.incrementAndGet();
+            log = logs.get(id);
+        }
+
+        boolean full = log == null || log.length > log.live * 2 || !getFile(id).exists();
+
+        try {
+            byte[] bytes = encode(data, full, log == null ? 1 : log.version + 1, true);
+            return new PlayerRecord(id, bytes, data.getJournalSeq(), List.of(), !full);
+        } catch(Throwable e) {
+            synchronized(logs) {
+                logs.remove(id);
+                writing.remove(id);
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * A delta whose log is no longer known fails the batch instead of being written on
+     * its own, which would replace the log with segments missing their header and
+     * base. The players are queued again and their next snapshot is a full one.
+     */
+    @Override
+    public void write(List<PlayerRecord> records) throws IOException {
+        try {
+            append(records);
+        } finally {
+            synchronized(logs) {
+                for(PlayerRecord i : records) {
+                    writing.remove(i.getId());
+                }
+
+                epoch.incrementAndGet();
+            }
+        }
+    }
+
+    private void append(List<PlayerRecord> records) throws IOException {
+        for(PlayerRecord i : records) {
+            File f = getFile(i.getId());
+            Log log = logs.get(i.getId());
+
+            try {
+                if(i.isDelta()) {
+                    if(log == null) {
+                        throw new IOException("Lost track of the segment log of " + i.getId() + ", it has to be saved in full");
+                    }
+
+                    try(FileOutputStream out = new FileOutputStream(f, true)) {
+                        out.write(i.getData());
+                        out.getFD().sync();
+                    }
+
+                    logs.put(i.getId(), new Log(log.version + 1, log.length + i.getData().length, log.live));
+                    deltaWrites.incrementAndGet();
+                } else {
+                    IO.writeAtomic(f, i.getData());
+                    logs.put(i.getId(), new Log(log == null ? 1 : log.version + 1, i.getData().length, i.getData().length));
+                    fullWrites.incrementAndGet();
+                }
+            } catch(Throwable e) {
+                for(PlayerRecord j : records) {
+                    logs.remove(j.getId());
+                }
+
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Set<UUID> list() throws IOException {
+        Set<UUID> ids = FilePlayerStore.scan(".seg");
+        ids.addAll(fallback.list());
+        return ids;
+    }
+
+    /**
+     * How many bytes a delta save of this player would append as it stands, without
+     * touching any dirty flags.
+     */
+    public static long measureDelta(PlayerData data) throws IOException {
+        return encode(data, false, 1, false).length;
+    }
+
+    /**
+     * Encodes the changed segments, or all of them behind the log header when full.
+     * Each segment's dirty flag is cleared right before it is encoded when consuming.
+     */
+    private static byte[] encode(PlayerData data, boolean full, long version, boolean consume) throws IOException {
+        ByteArrayOutputStream boas = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(boas);
+
+        if(full) {
+            out.writeInt(MAGIC);
+        }
+
+        List<String> lines = new ArrayList<>();
+
+        for(Map.Entry<String, PlayerSkillLine> i : data.getSkillLines().entrySet()) {
+            lines.add(i.getKey());
+
+            if(full || i.getValue().isDirty()) {
+                if(consume) {
+                    i.getValue().clean();
+                }
+
+                Segment.write(out, LINE, i.getKey(), version, PlayerDataCodec.encodeSkillLine(i.getValue()));
+            }
+        }
+
+        boolean discoveries = full;
+
+        for(Discovery<?> i : data.getDiscoveries()) {
+            discoveries = discoveries || i.isDirty();
+
+            if(consume) {
+                i.clean();
+            }
+        }
+
+        if(discoveries) {
+            Segment.write(out, DISCOVERIES, "", version, PlayerDataCodec.encodeDiscoveries(data));
+        }
+
+        if(full || data.isStatsDirty()) {
+            if(consume) {
+                data.setStatsDirty(false);
+            }
+
+            Segment.write(out, STATS, "", version, PlayerDataCodec.encodeStats(data));
+        }
+
+        if(consume) {
+            data.setDirty(false);
+        }
+
+        Segment.write(out, CORE, "", version, PlayerDataCodec.encodeCore(data));
+        ByteArrayOutputStream commit = new ByteArrayOutputStream();
+        DataOutputStream c = new DataOutputStream(commit);
+        c.writeLong(data.getJournalSeq());
+        c.writeInt(lines.size());
+
+        for(String i : lines) {
+            c.writeUTF(i);
+        }
+
+        Segment.write(out, COMMIT, "", version, commit.toByteArray());
+        out.flush();
+        return boas.toByteArray();
+    }
+
+    @AllArgsConstructor
+    private static class Log {
+        private final long version;
+        private final long length;
+        private final long live;
+    }
+
+    /**
+     * Framed as length, type, name, version, payload and a crc of all of it.
+     */
+    @AllArgsConstructor
+    private static class Segment {
+        private final byte type;
+        private final String name;
+        private final long version;
+        private final byte[] data;
+
+        String key() {
+            return type + ":" + name;
+        }
+
+        long size() {
+            return 19L + name.length() + data.length;
+        }
+
+        static void write(DataOutputStream out, byte type, String name, long version, byte[] data) throws IOException {
+            ByteArrayOutputStream boas = new ByteArrayOutputStream(data.length + 32);
+            DataOutputStream body = new DataOutputStream(boas);
+            body.writeByte(type);
+            body.writeUTF(name);
+            body.writeLong(version);
+            body.write(data);
+            body.flush();
+            CRC32 crc = new CRC32();
+            crc.update(boas.toByteArray());
+            out.writeInt(boas.size());
+            boas.writeTo(out);
+            out.writeInt((int) crc.getValue());
+        }
+
+        /**
+         * @return the next segment or null when the rest of the log is torn or corrupt
+         */
+        static Segment read(DataInputStream in) throws IOException {
+            if(in.available() < 4) {
+                return null;
+            }
+
+            int length = in.readInt();
+
+            if(length < 11 || in.available() < length + 4) {
+                return null;
+            }
+
+            byte[] body = new byte[length];
+            in.readFully(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+
+            if((int) crc.getValue() != in.readInt()) {
+                return null;
+            }
+
+            DataInputStream b = new DataInputStream(new ByteArrayInputStream(body));
+            byte type = b.readByte();
+            String name = b.readUTF();
+            long version = b.readLong();
+            return new Segment(type, name, version, b.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.data;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.PlayerSkillLine;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps every player in a single SQLite database, using the driver the server
+ * already ships. The data itself is stored as a {@link PlayerDataCodec} blob, and
+ * each skill line's level, xp and knowledge also go into an indexed table, next to
+ * an indexed master xp column, so offline lookups like top lists and leaderboard
+ * rebuilds don't have to decode anyone.
+ * <p>
+ * Players missing from the database are read from the fallback store, so switching
+ * from files migrates each player on their next save.
+ */
+public class SqlitePlayerStore implements PlayerStore {
+    private final Connection connection;
+    private final PlayerStore fallback;
+    private final PreparedStatement select;
+    private final PreparedStatement upsert;
+    private final PreparedStatement clearSkills;
+    private final PreparedStatement insertSkill;
+    private final PreparedStatement top;
+    private final PreparedStatement topMaster;
+
+    public SqlitePlayerStore(File file, PlayerStore fallback) throws SQLException {
+        this.fallback = fallback;
+        file.getParentFile().mkdirs();
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+
+        try(Statement s = connection.createStatement()) {
+            s.execute("PRAGMA journal_mode=WAL");
+            s.execute("PRAGMA synchronous=NORMAL");
+            s.execute("CREATE TABLE IF NOT EXISTS players (uuid TEXT PRIMARY KEY, data BLOB NOT NULL, updated INTEGER NOT NULL, master_xp REAL NOT NULL DEFAULT 0)");
+
+            if(!hasColumn(s, "players", "master_xp")) {
+                s.execute("ALTER TABLE players ADD COLUMN master_xp REAL NOT NULL DEFAULT 0");
+                fillMasterXp();
+            }
+
+            s.execute("CREATE INDEX IF NOT EXISTS players_master ON players (master_xp DESC)");
+            s.execute("CREATE TABLE IF NOT EXISTS skills (uuid TEXT NOT NULL, skill TEXT NOT NULL, level INTEGER NOT NULL, xp REAL NOT NULL, knowledge INTEGER NOT NULL, PRIMARY KEY (uuid, skill))");
+            s.execute("CREATE INDEX IF NOT EXISTS skills_xp ON skills (skill, xp DESC)");
+            s.execute("CREATE INDEX IF NOT EXISTS skills_level ON skills (skill, level DESC)");
+        }
+
+        select = connection.prepareStatement("SELECT data FROM players WHERE uuid = ?");
+        upsert = connection.prepareStatement("INSERT INTO players (uuid, data, updated, master_xp) VALUES (?, ?, ?, ?) ON CONFLICT (uuid) DO UPDATE SET data = excluded.data, updated = excluded.updated, master_xp = excluded.master_xp");
+        clearSkills = connection.prepareStatement("DELETE FROM skills WHERE uuid = ?");
+        insertSkill = connection.prepareStatement("INSERT INTO skills (uuid, skill, level, xp, knowledge) VALUES (?, ?, ?, ?, ?)");
+        top = connection.prepareStatement("SELECT uuid, skill, level, xp, knowledge FROM skills WHERE skill = ? ORDER BY xp DESC LIMIT ?");
+        topMaster = connection.prepareStatement("SELECT uuid, master_xp FROM players ORDER BY master_xp DESC LIMIT ?");
+    }
+
+    /**
+     * Databases from before the master_xp column get it filled in once by decoding
+     * every player.
+     */
+    private void fillMasterXp() throws SQLException {
+        try(Statement s = connection.createStatement(); ResultSet r = s.executeQuery("SELECT uuid, data FROM players");
+            PreparedStatement update = connection.prepareStatement("UPDATE players SET master_xp = ? WHERE uuid = ?")) {
+            while(r.next()) {
+                try {
+                    update.setDouble(1, PlayerDataCodec.decode(r.getBytes(2)).getMasterXp());
+                    update.setString(2, r.getString(1));
+                    update.addBatch();
+                } catch(IOException e) {
+                    Adapt.error("Failed to read master xp of " + r.getString(1) + ": " + e.getMessage());
+                }
+            }
+
+            update.executeBatch();
+        }
+    }
+
+    private static boolean hasColumn(Statement s, String table, String column) throws SQLException {
+        try(ResultSet r = s.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while(r.next()) {
+                if(r.getString("name").equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    public synchronized PlayerData load(UUID id) throws IOException {
+        try {
+            select.setString(1, id.toString());
+
+            try(ResultSet r = select.executeQuery()) {
+                if(r.next()) {
+                    return PlayerDataCodec.decode(r.getBytes(1));
+                }
+            }
+        } catch(SQLException e) {
+            throw new IOException(e);
+        }
+
+        return fallback.load(id);
+    }
+
+    @Override
+    public PlayerRecord snapshot(UUID id, PlayerData data) throws IOException {
+        data.clean();
+        List<PlayerRecord.SkillRow> skills = new ArrayList<>();
+
+        for(Map.Entry<String, PlayerSkillLine> i : data.getSkillLines().entrySet()) {
+            PlayerSkillLine l = i.getValue();
+            skills.add(new PlayerRecord.SkillRow(id, i.getKey(), l.getLevel(), l.getXp(), l.getKnowledge()));
+        }
+
+        return new PlayerRecord(id, PlayerDataCodec.encode(data), data.getJournalSeq(), skills, false, data.getMasterXp());
+    }
+
+    /**
+     * Upserts the whole batch in one transaction.
+     */
+    @Override
+    public synchronized void write(List<PlayerRecord> records) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+            long now = System.currentTimeMillis();
+
+            for(PlayerRecord i : records) {
+                upsert.setString(1, i.getId().toString());
+                upsert.setBytes(2, i.getData());
+                upsert.setLong(3, now);
+                upsert.setDouble(4, i.getMasterXp());
+                upsert.addBatch();
+                clearSkills.setString(1, i.getId().toString());
+                clearSkills.addBatch();
+
+                for(PlayerRecord.SkillRow j : i.getSkills()) {
+                    insertSkill.setString(1, i.getId().toString());
+                    insertSkill.setString(2, j.getSkill());
+                    insertSkill.setInt(3, j.getLevel());
+                    insertSkill.setDouble(4, j.getXp());
+                    insertSkill.setLong(5, j.getKnowledge());
+                    insertSkill.addBatch();
+                }
+            }
+
+            upsert.executeBatch();
+            clearSkills.executeBatch();
+            insertSkill.executeBatch();
+            connection.commit();
+        } catch(SQLException e) {
+            try {
+                connection.rollback();
+            } catch(SQLException ignored) {
+
+            }
+
+            throw new IOException(e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch(SQLException ignored) {
+
+            }
+        }
+    }
+
+    @Override
+    public synchronized Set<UUID> list() throws IOException {
+        Set<UUID> ids = new HashSet<>(fallback.list());
+        ids.addAll(listIndexed());
+        return ids;
+    }
+
+    /**
+     * Players who are in the database, and so covered by {@link #getTop(String, int)}.
+     */
+    public synchronized Set<UUID> listIndexed() throws IOException {
+        Set<UUID> ids = new HashSet<>();
+
+        try(Statement s = connection.createStatement(); ResultSet r = s.executeQuery("SELECT uuid FROM players")) {
+            while(r.next()) {
+                ids.add(UUID.fromString(r.getString(1)));
+            }
+        } catch(SQLException e) {
+            throw new IOException(e);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Players only the fallback store has, they still need to be decoded.
+     */
+    public synchronized Set<UUID> listUnindexed() throws IOException {
+        Set<UUID> ids = new HashSet<>(fallback.list());
+        ids.removeAll(listIndexed());
+        return ids;
+    }
+
+    public synchronized Set<String> getSkills() throws IOException {
+        Set<String> skills = new HashSet<>();
+
+        try(Statement s = connection.createStatement(); ResultSet r = s.executeQuery("SELECT DISTINCT skill FROM skills")) {
+            while(r.next()) {
+                skills.add(r.getString(1));
+            }
+        } catch(SQLException e) {
+            throw new IOException(e);
+        }
+
+        return skills;
+    }
+
+    /**
+     * Players with the most master xp, as rows without a skill.
+     */
+    public synchronized List<PlayerRecord.SkillRow> getTopMaster(int limit) throws IOException {
+        List<PlayerRecord.SkillRow> rows = new ArrayList<>();
+
+        try {
+            topMaster.setInt(1, limit);
+
+            try(ResultSet r = topMaster.executeQuery()) {
+                while(r.next()) {
+                    rows.add(new PlayerRecord.SkillRow(UUID.fromString(r.getString(1)), null, 0, r.getDouble(2), 0));
+                }
+            }
+        } catch(SQLException e) {
+            throw new IOException(e);
+        }
+
+        return rows;
+    }
+
+    /**
+     * Players with the most xp in a skill, straight from the index.
+     */
+    public synchronized List<PlayerRecord.SkillRow> getTop(String skill, int limit) throws IOException {
+        List<PlayerRecord.SkillRow> rows = new ArrayList<>();
+
+        try {
+            top.setString(1, skill);
+            top.setInt(2, limit);
+
+            try(ResultSet r = top.executeQuery()) {
+                while(r.next()) {
+                    rows.add(new PlayerRecord.SkillRow(UUID.fromString(r.getString(1)), r.getString(2), r.getInt(3), r.getDouble(4), r.getLong(5)));
+                }
+            }
+        } catch(SQLException e) {
+            throw new IOException(e);
+        }
+
+        return rows;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch(SQLException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -21,33 +21,87 @@ package com.volmit.adapt.api.data;
 import art.arcane.spatial.mantle.Mantle;
 import art.arcane.spatial.matter.SpatialMatter;
 import com.volmit.adapt.Adapt;
+import com.volmit.adapt.AdaptConfig;
 import com.volmit.adapt.api.data.unit.Earnings;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
 import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.world.WorldSaveEvent;
 import org.bukkit.event.world.WorldUnloadEvent;
 
-import java.util.HashMap;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Block data for a single world. Each world has its own mantle folder, so worlds
+ * never share region files, and the regions held in memory are bounded per world.
+ */
 public class WorldData extends TickedObject {
-    private static final Map<World, WorldData> mantles = new HashMap<>();
-    private final World world;
+    private static final Map<UUID, WorldData> mantles = new ConcurrentHashMap<>();
+    private static final long MIN_IDLE = 5000;
+    @Getter
+    private static final AtomicLong prefetchHits = new AtomicLong(0);
+    @Getter
+    private static final AtomicLong prefetchMisses = new AtomicLong(0);
+    private final UUID world;
+    private final Map<Long, Long> regions;
+    private final Map<Long, Integer> loadedChunks;
     @Getter
     private final Mantle mantle;
+    @Getter
+    private final EarningsHeatmap heatmap;
 
     public WorldData(World world) {
         super("world-data", world.getUID().toString(), 30_000);
-        this.world = world;
-        mantle = new Mantle(Adapt.instance.getDataFolder("data", "mantle"), 256);
+        this.world = world.getUID();
+        this.regions = new ConcurrentHashMap<>();
+        this.loadedChunks = new ConcurrentHashMap<>();
+        setPriority(TickPriority.LOW);
+        File folder = getFolder(world);
+        mantle = new Mantle(folder, 256);
+
+        if(AdaptConfig.get().getEarningsStore().equalsIgnoreCase("section")) {
+            heatmap = new EarningsHeatmap(new File(folder, "earnings.heat"), AdaptConfig.get().getEarningsSectionAllowance(), AdaptConfig.get().getEarningsHalfLifeMs());
+            J.attempt(heatmap::load);
+        } else {
+            heatmap = null;
+        }
+    }
+
+    public <T> T get(int x, int y, int z, Class<T> type) {
+        touch(x, z);
+        return mantle.get(x, y, z, type);
+    }
+
+    public <T> void set(int x, int y, int z, T t) {
+        touch(x, z);
+        mantle.set(x, y, z, t);
+    }
+
+    public <T> void remove(int x, int y, int z, Class<T> type) {
+        touch(x, z);
+        mantle.remove(x, y, z, type);
     }
 
     public double getEarningsMultiplier(Block block) {
-        Earnings e = mantle.get(block.getX(), block.getY(), block.getZ(), Earnings.class);
+        if(heatmap != null) {
+            return heatmap.getMultiplier(block.getX(), block.getY(), block.getZ());
+        }
+
+        Earnings e = get(block.getX(), block.getY(), block.getZ(), Earnings.class);
 
         if(e == null) {
             return 1;
@@ -57,44 +111,198 @@ public class WorldData extends TickedObject {
     }
 
     public double reportEarnings(Block block) {
-        Earnings e = mantle.get(block.getX(), block.getY(), block.getZ(), Earnings.class);
+        if(heatmap != null) {
+            return heatmap.report(block.getX(), block.getY(), block.getZ());
+        }
+
+        Earnings e = get(block.getX(), block.getY(), block.getZ(), Earnings.class);
         e = e == null ? new Earnings(0) : e;
 
         if(e.getEarnings() >= 127) {
             return 1 / (double) (e.getEarnings() == 0 ? 1 : e.getEarnings());
         }
 
-        mantle.set(block.getX(), block.getY(), block.getZ(), e.increment());
+        set(block.getX(), block.getY(), block.getZ(), e.increment());
         return 1 / (double) (e.getEarnings() == 0 ? 1 : e.getEarnings());
     }
 
+    /**
+     * The number of 512 block regions touched since they were last trimmed.
+     */
+    public int getResidentRegions() {
+        return regions.size();
+    }
+
     public void unregister() {
         super.unregister();
-        mantle.close();
         mantles.remove(world);
+        mantle.close();
+
+        if(heatmap != null) {
+            J.attempt(heatmap::save);
+        }
     }
 
     @EventHandler
     public void on(WorldSaveEvent e) {
-        J.a(mantle::saveAll);
+        if(e.getWorld().getUID().equals(world)) {
+            J.a(() -> {
+                mantle.saveAll();
+
+                if(heatmap != null) {
+                    J.attempt(heatmap::save);
+                }
+            });
+        }
     }
 
     @EventHandler
     public void on(WorldUnloadEvent e) {
-        unregister();
+        if(e.getWorld().getUID().equals(world)) {
+            unregister();
+        }
     }
 
+    /**
+     * Trims regions idle past the configured time. Regions with loaded chunks are
+     * read again first, which keeps them warm, and never count against the limit.
+     * When more of the other regions than allowed are still resident, the idle
+     * cutoff moves up to the access time of the oldest one that may stay, so the
+     * least recently used ones are unloaded first. The cutoff never drops below a few
+     * seconds, which is what keeps the warm regions that were just read.
+     */
     @Override
     public void onTick() {
-        mantle.trim(60_000);
+        long now = M.ms();
+        long idle = AdaptConfig.get().getMantleIdleMs();
+        int max = AdaptConfig.get().getMantleRegionsPerWorld();
+
+        for(long i : loadedChunks.keySet()) {
+            if(regions.replace(i, now) != null) {
+                mantle.get((int) (i >> 32) << 9, 0, (int) i << 9, Earnings.class);
+            }
+        }
+
+        regions.values().removeIf(i -> now - i > idle);
+        long[] access = regions.entrySet().stream()
+            .filter(i -> !loadedChunks.containsKey(i.getKey()))
+            .mapToLong(Map.Entry::getValue)
+            .toArray();
+        int allowed = Math.max(0, max - (regions.size() - access.length));
+
+        if(access.length > allowed) {
+            Arrays.sort(access);
+            long keepFrom = allowed == 0 ? now : access[access.length - allowed];
+            idle = Math.max(MIN_IDLE, now - keepFrom);
+            long cutoff = now - idle;
+            regions.entrySet().removeIf(i -> !loadedChunks.containsKey(i.getKey()) && i.getValue() < cutoff);
+        }
+
+        mantle.trim(idle);
+
+        if(heatmap != null) {
+            heatmap.trim();
+        }
+    }
+
+    /**
+     * Counts a loaded chunk against its region and, for the first chunk of a region
+     * that is not resident yet, reads the region in asynchronously so block handlers
+     * on the main thread find it in memory.
+     */
+    public void prefetch(Chunk chunk) {
+        long key = region(chunk.getX() << 4, chunk.getZ() << 4);
+
+        if(loadedChunks.merge(key, 1, Integer::sum) == 1 && !regions.containsKey(key)) {
+            int x = chunk.getX() << 4;
+            int z = chunk.getZ() << 4;
+            J.a(() -> {
+                mantle.get(x, 0, z, Earnings.class);
+                regions.putIfAbsent(key, M.ms());
+            });
+        }
+    }
+
+    /**
+     * Releases a chunk. Once a region has no loaded chunks it is no longer kept warm
+     * and falls back to idle trimming.
+     */
+    public void release(Chunk chunk) {
+        loadedChunks.computeIfPresent(region(chunk.getX() << 4, chunk.getZ() << 4), (k, v) -> v <= 1 ? null : v - 1);
+    }
+
+    private void touch(int x, int z) {
+        if(regions.put(region(x, z), M.ms()) == null) {
+            prefetchMisses.incrementAndGet();
+        } else {
+            prefetchHits.incrementAndGet();
+        }
+    }
+
+    private static long region(int x, int z) {
+        return ((long) (x >> 9) << 32) | ((z >> 9) & 0xFFFFFFFFL);
+    }
+
+    public static void release(World world, Chunk chunk) {
+        WorldData d = mantles.get(world.getUID());
+
+        if(d != null) {
+            d.release(chunk);
+        }
+    }
+
+    public static int getLoadedWorlds() {
+        return mantles.size();
+    }
+
+    public static int getTotalResidentRegions() {
+        return mantles.values().stream().mapToInt(WorldData::getResidentRegions).sum();
+    }
+
+    public static int getTotalHeatSections() {
+        return mantles.values().stream().mapToInt(i -> i.heatmap == null ? 0 : i.heatmap.size()).sum();
     }
 
+    /**
+     * Saves and closes every world's mantle in parallel. They no longer share files,
+     * so there is nothing for them to contend on.
+     */
     public static void stop() {
-        mantles.v().forEach(WorldData::unregister);
+        List<WorldData> all = new ArrayList<>(mantles.values());
+        all.parallelStream().forEach(WorldData::unregister);
     }
 
     public static WorldData of(World world) {
-        return mantles.computeIfAbsent(world, WorldData::new);
+        return mantles.computeIfAbsent(world.getUID(), k -> new WorldData(world));
+    }
+
+    /**
+     * Mantles used to share data/mantle across every world. The default world adopts
+     * any region files left there, the others start empty.
+     */
+    private static File getFolder(World world) {
+        File root = Adapt.instance.getDataFolder("data", "mantle");
+        File folder = new File(root, world.getUID().toString());
+
+        if(!folder.exists() && !Bukkit.getWorlds().isEmpty() && Bukkit.getWorlds().get(0).equals(world)) {
+            File[] legacy = root.listFiles(File::isFile);
+
+            if(legacy != null && legacy.length > 0) {
+                folder.mkdirs();
+                int moved = 0;
+
+                for(File i : legacy) {
+                    if(i.renameTo(new File(folder, i.getName()))) {
+                        moved++;
+                    }
+                }
+
+                Adapt.info("Moved " + moved + " shared mantle files into " + world.getName());
+            }
+        }
+
+        folder.mkdirs();
+        return folder;
     }
 
     static {
@@ -20,6 +20,8 @@ package com.volmit.adapt.api.notification;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.tick.TickLane;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.api.world.AdaptPlayer;
 import com.volmit.adapt.util.C;
@@ -41,9 +43,16 @@ public class Notifier extends TickedObject {
     private int busyTicks;
     private int delayTicks;
     private long lastInstance;
+    private String xpLine;
 
     public Notifier(AdaptPlayer target) {
-        super("notifications", target.getPlayer().getUniqueId() + "-notify", 97);
+        this(target, "notify");
+    }
+
+    public Notifier(AdaptPlayer target, String channel) {
+        super("notifications", target.getPlayer().getUniqueId() + "-" + channel, 97);
+        setLane(TickLane.PER_PLAYER);
+        setPriority(TickPriority.HIGH);
         queue = new ArrayList<>();
         lastSkills = new HashMap<>();
         lastSkillValues = new HashMap<>();
@@ -53,17 +62,36 @@ public class Notifier extends TickedObject {
         lastInstance = 0;
     }
 
+    @Override
+    public String getLaneKey() {
+        return target.getPlayer().getUniqueId().toString();
+    }
+
+    /**
+     * Adds to the running xp totals shown in the action bar. The bar itself is only
+     * rebuilt by {@link #publishXP()}, once per tick, however many grants landed.
+     */
     public void notifyXP(String line, double value) {
-        try {
-            if(!lastSkills.containsKey(line)) {
-                lastSkillValues.put(line, 0d);
-            }
+        if(!lastSkills.containsKey(line)) {
+            lastSkillValues.put(line, 0d);
+        }
 
-            lastSkills.put(line, M.ms());
-            lastSkillValues.put(line, lastSkillValues.get(line) + value);
-            lastInstance = M.ms();
+        lastSkills.put(line, M.ms());
+        lastSkillValues.put(line, lastSkillValues.get(line) + value);
+        lastInstance = M.ms();
+        xpLine = line;
+    }
 
+    public void publishXP() {
+        String line = xpLine;
 
+        if(line == null) {
+            return;
+        }
+
+        xpLine = null;
+
+        try {
             StringBuilder sb = new StringBuilder();
 
             for(String i : lastSkills.sortKNumber().reverse()) {
@@ -19,17 +19,16 @@
 package com.volmit.adapt.api.skill;
 
 import art.arcane.amulet.io.FileWatcher;
-import com.google.gson.Gson;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.Adaptation;
 import com.volmit.adapt.api.advancement.AdaptAdvancement;
+import com.volmit.adapt.api.data.Json;
 import com.volmit.adapt.api.recipe.AdaptRecipe;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.api.world.AdaptStatTracker;
 import com.volmit.adapt.util.C;
-import com.volmit.adapt.util.IO;
 import com.volmit.adapt.util.J;
-import com.volmit.adapt.util.JSONObject;
 import com.volmit.adapt.util.advancements.advancement.AdvancementVisibility;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -94,6 +93,10 @@ public abstract class SimpleSkill<T> extends TickedObject implements Skill<T> {
         J.a(() -> {
             fw.checkModified();
             Adapt.instance.getTicker().register(new TickedObject("config", "config-" + getName(), 1000) {
+                {
+                    setPriority(TickPriority.LOW);
+                }
+
                 @Override
                 public void onTick() {
                     if(fw.checkModified() && file.exists())
@@ -117,7 +120,7 @@ public abstract class SimpleSkill<T> extends TickedObject implements Skill<T> {
 
                 if(!l.exists()) {
                     try {
-                        IO.writeAll(l, new JSONObject(new Gson().toJson(dummy)).toString(4));
+                        Json.write(l, dummy);
                     } catch(IOException e) {
                         e.printStackTrace();
                         config = dummy;
@@ -126,8 +129,8 @@ public abstract class SimpleSkill<T> extends TickedObject implements Skill<T> {
                 }
 
                 try {
-                    config = new Gson().fromJson(IO.readAll(l), getConfigurationClass());
-                    IO.writeAll(l, new JSONObject(new Gson().toJson(config)).toString(4));
+                    config = Json.read(l, getConfigurationClass());
+                    Json.write(l, config);
                 } catch(IOException e) {
                     e.printStackTrace();
                     config = dummy;
@@ -19,6 +19,7 @@
 package com.volmit.adapt.api.skill;
 
 import com.volmit.adapt.api.recipe.AdaptRecipe;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.api.world.AdaptPlayer;
 import com.volmit.adapt.api.world.PlayerSkillLine;
@@ -54,6 +55,7 @@ public class SkillRegistry extends TickedObject {
 
     public SkillRegistry() throws IOException {
         super("registry", UUID.randomUUID() + "-sk", 1250);
+        setPriority(TickPriority.LOW);
         registerSkill(SkillAgility.class);
         registerSkill(SkillArchitect.class);
         registerSkill(SkillAxes.class);
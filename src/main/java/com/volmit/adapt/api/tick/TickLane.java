@@ -0,0 +1,40 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.tick;
+
+/**
+ * Where the ticker runs a ticked object
+ */
+public enum TickLane {
+    /**
+     * Runs on any ticker worker thread. Only for objects which do not touch the Bukkit world.
+     */
+    ASYNC_PURE,
+
+    /**
+     * Runs on the server thread. Every main thread object due on a tick is run in one sync slice.
+     */
+    MAIN_THREAD,
+
+    /**
+     * Runs on a ticker worker thread, but every object sharing the same lane key (the owning player)
+     * is run sequentially in the same task so per player state is never ticked concurrently.
+     */
+    PER_PLAYER
+}
@@ -0,0 +1,49 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.tick;
+
+/**
+ * How willing a ticked object is to give up its interval when the ticker runs over budget
+ */
+public enum TickPriority {
+    /**
+     * Never stretched
+     */
+    HIGH(0),
+
+    /**
+     * Stretched by the square root of the ticker stretch factor
+     */
+    NORMAL(0.5),
+
+    /**
+     * Stretched by the full ticker stretch factor
+     */
+    LOW(1);
+
+    private final double exponent;
+
+    TickPriority(double exponent) {
+        this.exponent = exponent;
+    }
+
+    public double stretch(double factor) {
+        return exponent == 0 ? 1 : Math.pow(factor, exponent);
+    }
+}
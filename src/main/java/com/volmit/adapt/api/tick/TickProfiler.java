@@ -0,0 +1,137 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.tick;
+
+import com.volmit.adapt.util.AtomicRollingSequence;
+import com.volmit.adapt.util.M;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps rolling execution time samples of every ticked object, keyed by group/id
+ */
+public class TickProfiler {
+    private static final int SAMPLES = 128;
+    private final Map<String, Profile> profiles;
+    private volatile long since;
+
+    public TickProfiler() {
+        profiles = new ConcurrentHashMap<>();
+        since = M.ms();
+    }
+
+    public void record(Ticked t, long nanos) {
+        String key = t.getProfileKey();
+        Profile p = profiles.get(key);
+
+        if(p == null) {
+            p = profiles.computeIfAbsent(key, Profile::new);
+        }
+
+        p.put(nanos);
+    }
+
+    public void remove(Ticked t) {
+        profiles.remove(t.getProfileKey());
+    }
+
+    public void reset() {
+        profiles.clear();
+        since = M.ms();
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * @param count
+     *     the maximum amount of profiles
+     * @return the profiles with the highest total time spent per second, heaviest first
+     */
+    public List<Profile> getTop(int count) {
+        List<Profile> p = new ArrayList<>(profiles.values());
+        p.sort(Comparator.comparingDouble(Profile::getLoad).reversed());
+        return p.subList(0, Math.min(count, p.size()));
+    }
+
+    public static class Profile {
+        private final String key;
+        private final AtomicRollingSequence times;
+        private final AtomicLong calls;
+        private final AtomicLong totalNanos;
+        private final long since;
+        private volatile long max;
+
+        private Profile(String key) {
+            this.key = key;
+            this.times = new AtomicRollingSequence(SAMPLES);
+            this.calls = new AtomicLong(0);
+            this.totalNanos = new AtomicLong(0);
+            this.since = M.ms();
+            this.max = 0;
+        }
+
+        private void put(long nanos) {
+            times.put(nanos);
+            calls.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+
+            if(nanos > max) {
+                max = nanos;
+            }
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public double getCallsPerSecond() {
+            return calls.get() / Math.max(1D, (M.ms() - since) / 1000D);
+        }
+
+        /**
+         * @return the average amount of nanoseconds spent per second
+         */
+        public double getLoad() {
+            return totalNanos.get() / Math.max(1D, (M.ms() - since) / 1000D);
+        }
+
+        public long getP50() {
+            return (long) times.getPercentile(0.5);
+        }
+
+        public long getP99() {
+            return (long) times.getPercentile(0.99);
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.tick;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Id indexed slot storage for ticked objects. Registering and unregistering are constant time,
+ * freed slots are recycled through a free list so the backing array stays dense for iteration.
+ * Every slot also remembers the wheel entry currently scheduled for its object.
+ */
+public class TickRegistry {
+    private final Map<String, Integer> index;
+    private Ticked[] slots;
+    private TickWheel.Entry[] entries;
+    private int[] free;
+    private int freeSize;
+    private int top;
+
+    public TickRegistry(int capacity) {
+        index = new ConcurrentHashMap<>(capacity);
+        slots = new Ticked[capacity];
+        entries = new TickWheel.Entry[capacity];
+        free = new int[capacity];
+        freeSize = 0;
+        top = 0;
+    }
+
+    /**
+     * Add a ticked object. If another object is registered under the same id, it is replaced.
+     *
+     * @param t
+     *     the ticked object
+     * @return the slot of the object, or -1 if this exact object is already registered
+     */
+    public synchronized int add(Ticked t) {
+        Integer existing = index.get(t.getId());
+
+        if(existing != null) {
+            if(slots[existing] == t) {
+                return -1;
+            }
+
+            release(existing);
+        }
+
+        int slot;
+
+        if(freeSize > 0) {
+            slot = free[--freeSize];
+        } else {
+            if(top == slots.length) {
+                grow();
+            }
+
+            slot = top++;
+        }
+
+        slots[slot] = t;
+        index.put(t.getId(), slot);
+        return slot;
+    }
+
+    /**
+     * Remove a ticked object, only if it is the object currently registered under its id
+     *
+     * @param t
+     *     the ticked object
+     * @return true if it was removed
+     */
+    public synchronized boolean remove(Ticked t) {
+        Integer slot = index.get(t.getId());
+
+        if(slot == null || slots[slot] != t) {
+            return false;
+        }
+
+        release(slot);
+        return true;
+    }
+
+    public synchronized Ticked get(String id) {
+        Integer slot = index.get(id);
+        return slot == null ? null : slots[slot];
+    }
+
+    public synchronized int slotOf(Ticked t) {
+        Integer slot = index.get(t.getId());
+        return slot != null && slots[slot] == t ? slot : -1;
+    }
+
+    public synchronized Ticked get(int slot) {
+        return slots[slot];
+    }
+
+    public synchronized TickWheel.Entry getEntry(int slot) {
+        return entries[slot];
+    }
+
+    public synchronized void setEntry(int slot, TickWheel.Entry entry) {
+        entries[slot] = entry;
+    }
+
+    public synchronized void forEach(Consumer<Ticked> consumer) {
+        for(int i = 0; i < top; i++) {
+            if(slots[i] != null) {
+                consumer.accept(slots[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private void release(int slot) {
+        index.remove(slots[slot].getId());
+        slots[slot] = null;
+
+        if(entries[slot] != null) {
+            entries[slot].cancel();
+            entries[slot] = null;
+        }
+
+        free[freeSize++] = slot;
+    }
+
+    private void grow() {
+        int size = slots.length << 1;
+        slots = Arrays.copyOf(slots, size);
+        entries = Arrays.copyOf(entries, size);
+        free = Arrays.copyOf(free, size);
+    }
+}
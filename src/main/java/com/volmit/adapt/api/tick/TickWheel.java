@@ -0,0 +1,140 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.tick;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hashed timing wheel. Entries are bucketed by their due time so advancing the wheel only
+ * touches the buckets that elapsed since the last advance instead of every scheduled entry.
+ * Entries further away than one revolution simply stay in their bucket until their round comes.
+ * <p>
+ * Not thread safe, the owner is expected to guard it with its own lock.
+ */
+public class TickWheel {
+    private final List<Entry>[] buckets;
+    private final int mask;
+    private final long resolution;
+    private long cursor;
+    private int size;
+
+    /**
+     * Create a timing wheel
+     *
+     * @param buckets
+     *     the amount of buckets, rounded up to a power of two
+     * @param resolution
+     *     the time span of one bucket in ms
+     * @param now
+     *     the current time in ms
+     */
+    @SuppressWarnings("unchecked")
+    public TickWheel(int buckets, long resolution, long now) {
+        int b = Integer.highestOneBit(Math.max(2, buckets - 1)) << 1;
+        this.buckets = new List[b];
+        this.mask = b - 1;
+        this.resolution = resolution;
+        this.cursor = now / resolution;
+
+        for(int i = 0; i < b; i++) {
+            this.buckets[i] = new ArrayList<>();
+        }
+    }
+
+    public Entry schedule(Ticked ticked, int slot, long due) {
+        Entry e = new Entry(ticked, slot, due);
+        buckets[(int) (Math.max(due / resolution, cursor) & mask)].add(e);
+        size++;
+        return e;
+    }
+
+    /**
+     * Pull every entry which is due at the given time out of the wheel
+     *
+     * @param now
+     *     the current time in ms
+     * @param due
+     *     receives every non cancelled entry due at or before now
+     */
+    public void advance(long now, Consumer<Entry> due) {
+        long to = now / resolution;
+        long from = Math.max(cursor, to - mask);
+
+        for(long s = from; s <= to; s++) {
+            List<Entry> bucket = buckets[(int) (s & mask)];
+
+            for(int i = bucket.size() - 1; i >= 0; i--) {
+                Entry e = bucket.get(i);
+
+                if(e.cancelled || e.due <= now) {
+                    int last = bucket.size() - 1;
+                    bucket.set(i, bucket.get(last));
+                    bucket.remove(last);
+                    size--;
+
+                    if(!e.cancelled) {
+                        due.accept(e);
+                    }
+                }
+            }
+        }
+
+        cursor = Math.max(cursor, to);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public static final class Entry {
+        private final Ticked ticked;
+        private final int slot;
+        private final long due;
+        private volatile boolean cancelled;
+
+        private Entry(Ticked ticked, int slot, long due) {
+            this.ticked = ticked;
+            this.slot = slot;
+            this.due = due;
+            this.cancelled = false;
+        }
+
+        public Ticked getTicked() {
+            return ticked;
+        }
+
+        public int getSlot() {
+            return slot;
+        }
+
+        public long getDue() {
+            return due;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -60,6 +60,25 @@ public interface Ticked extends AdaptComponent {
 
     String getId();
 
+    /**
+     * The key the profiler files this object under, group/id.
+     */
+    default String getProfileKey() {
+        return getGroup() + "/" + getId();
+    }
+
+    default TickLane getLane() {
+        return TickLane.ASYNC_PURE;
+    }
+
+    default String getLaneKey() {
+        return getId();
+    }
+
+    default TickPriority getPriority() {
+        return TickPriority.NORMAL;
+    }
+
     default boolean shouldTick() {
         return M.ms() - getLastTick() > getInterval();
     }
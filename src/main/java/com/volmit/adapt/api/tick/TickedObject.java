@@ -38,6 +38,9 @@ public abstract class TickedObject implements Ticked, Listener {
     private final long start;
     private final String group;
     private final String id;
+    private final String profileKey;
+    private volatile TickLane lane;
+    private volatile TickPriority priority;
 
     public TickedObject() {
         this("null");
@@ -58,6 +61,7 @@ public abstract class TickedObject implements Ticked, Listener {
     public TickedObject(String group, String id, long interval) {
         this.group = group;
         this.id = id;
+        this.profileKey = group + "/" + id;
         this.die = new AtomicBoolean(false);
         this.dieIn = new AtomicInteger(0);
         this.interval = new AtomicLong(interval);
@@ -66,6 +70,8 @@ public abstract class TickedObject implements Ticked, Listener {
         this.skip = new AtomicInteger(0);
         this.ticks = new AtomicLong(0);
         this.start = M.ms();
+        this.lane = TickLane.ASYNC_PURE;
+        this.priority = TickPriority.NORMAL;
         Adapt.instance.getTicker().register(this);
         Adapt.instance.registerListener(this);
     }
@@ -97,7 +103,9 @@ public abstract class TickedObject implements Ticked, Listener {
 
     @Override
     public void setInterval(long ms) {
-        interval.set(ms);
+        if(interval.getAndSet(ms) > ms) {
+            Adapt.instance.getTicker().wake(this);
+        }
     }
 
     @Override
@@ -118,6 +126,24 @@ public abstract class TickedObject implements Ticked, Listener {
 
     public abstract void onTick();
 
+    @Override
+    public TickLane getLane() {
+        return lane;
+    }
+
+    public void setLane(TickLane lane) {
+        this.lane = lane;
+    }
+
+    @Override
+    public TickPriority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(TickPriority priority) {
+        this.priority = priority;
+    }
+
     @Override
     public String getGroup() {
         return group;
@@ -128,6 +154,14 @@ public abstract class TickedObject implements Ticked, Listener {
         return id;
     }
 
+    /**
+     * Built once, the profiler looks it up for every tick.
+     */
+    @Override
+    public String getProfileKey() {
+        return profileKey;
+    }
+
     @Override
     public long getTickCount() {
         return ticks.get();
@@ -147,10 +181,11 @@ public abstract class TickedObject implements Ticked, Listener {
     public void burst(int ticks) {
         if(burst.get() < 0) {
             burst.set(ticks);
-            return;
+        } else {
+            burst.addAndGet(ticks);
         }
 
-        burst.addAndGet(ticks);
+        Adapt.instance.getTicker().wake(this);
     }
 
     @Override
@@ -18,24 +18,53 @@
 
 package com.volmit.adapt.api.tick;
 
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.AdaptConfig;
 import com.volmit.adapt.util.BurstExecutor;
+import com.volmit.adapt.util.ChronoLatch;
+import com.volmit.adapt.util.Form;
 import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
 import com.volmit.adapt.util.MultiBurst;
+import com.volmit.adapt.util.RollingSequence;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Ticker {
-    private final List<Ticked> ticklist;
-    private final List<Ticked> newTicks;
-    private final List<String> removeTicks;
+    private final TickRegistry registry;
+    private final TickProfiler profiler;
+    private final TickWheel wheel;
+    private final List<TickWheel.Entry> due;
+    private final List<TickWheel.Entry> async;
+    private final Map<String, List<Ticked>> lanes;
+    private final RollingSequence dispatched;
+    private final RollingSequence load;
+    private final RollingSequence serverTick;
+    private final AtomicLong spent;
+    private final ChronoLatch reportLatch;
+    private volatile int lastDispatched;
+    private volatile double stretch;
+    private long lastTickStart;
     private volatile boolean ticking;
 
     public Ticker() {
-        this.ticklist = new ArrayList<>(4096);
-        this.newTicks = new ArrayList<>(128);
-        this.removeTicks = new ArrayList<>(128);
+        this.registry = new TickRegistry(4096);
+        this.profiler = new TickProfiler();
+        this.wheel = new TickWheel(256, 50, M.ms());
+        this.due = new ArrayList<>(256);
+        this.async = new ArrayList<>(256);
+        this.lanes = new HashMap<>();
+        this.dispatched = new RollingSequence(20);
+        this.load = new RollingSequence(20);
+        this.serverTick = new RollingSequence(20);
+        this.spent = new AtomicLong(0);
+        this.stretch = 1;
+        this.lastTickStart = 0;
+        this.reportLatch = new ChronoLatch(60000, false);
         ticking = false;
         J.ar(() -> {
             if(!ticking) {
@@ -45,64 +74,202 @@ public class Ticker {
     }
 
     public void register(Ticked ticked) {
-        synchronized(newTicks) {
-            newTicks.add(ticked);
+        synchronized(registry) {
+            int slot = registry.add(ticked);
+
+            if(slot >= 0) {
+                schedule(ticked, slot);
+            }
         }
     }
 
     public void unregister(Ticked ticked) {
-        synchronized(removeTicks) {
-            removeTicks.add(ticked.getId());
+        if(registry.remove(ticked)) {
+            profiler.remove(ticked);
         }
     }
 
+    /**
+     * Reschedule a ticked object whose interval shrunk (or started bursting) so it does not wait
+     * for the due time computed with its old interval.
+     *
+     * @param ticked
+     *     the ticked object
+     */
+    public void wake(Ticked ticked) {
+        synchronized(registry) {
+            int slot = registry.slotOf(ticked);
+
+            if(slot < 0) {
+                return;
+            }
+
+            TickWheel.Entry e = registry.getEntry(slot);
+
+            if(e != null && e.getDue() > nextDue(ticked)) {
+                e.cancel();
+                schedule(ticked, slot);
+            }
+        }
+    }
+
+    /**
+     * @param id
+     *     the id of the ticked object
+     * @return the registered object with this id or null
+     */
+    public Ticked get(String id) {
+        return registry.get(id);
+    }
+
+    public TickProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * @return the amount of objects currently registered with the ticker
+     */
+    public int getRegisteredCount() {
+        return registry.size();
+    }
+
+    /**
+     * @return the amount of objects which were actually ticked on the last tick
+     */
+    public int getDispatchedCount() {
+        return lastDispatched;
+    }
+
+    /**
+     * @return the average amount of objects ticked per tick over the last second
+     */
+    public double getAverageDispatchedCount() {
+        return dispatched.getAverage();
+    }
+
+    /**
+     * @return the factor low priority intervals are currently stretched by to stay within the tick budget
+     */
+    public double getStretch() {
+        return stretch;
+    }
+
+    /**
+     * @return the average time in ms spent ticking objects per tick
+     */
+    public double getAverageLoad() {
+        return load.getAverage();
+    }
+
     private void tick() {
         ticking = true;
-//        int ix = 0;
-        AtomicInteger tc = new AtomicInteger(0);
-        BurstExecutor e = MultiBurst.burst.burst(ticklist.size());
-        for(int i = 0; i < ticklist.size(); i++) {
-            int ii = i;
-//            ix++;
-            e.queue(() -> {
-                Ticked t = ticklist.get(ii);
-
-                if(t != null && t.shouldTick()) {
-                    tc.incrementAndGet();
-                    try {
-                        t.tick();
-                    } catch(Throwable exxx) {
-                        exxx.printStackTrace();
-                    }
+        long now = M.ms();
+
+        if(lastTickStart > 0) {
+            serverTick.put(now - lastTickStart);
+        }
+
+        lastTickStart = now;
+
+        synchronized(registry) {
+            wheel.advance(now, due::add);
+        }
+
+        BurstExecutor e = MultiBurst.burst.burst(due.size());
+        List<TickWheel.Entry> sync = new ArrayList<>();
+        int tc = 0;
+
+        for(TickWheel.Entry i : due) {
+            Ticked t = i.getTicked();
+
+            if(!t.shouldTick()) {
+                async.add(i);
+                continue;
+            }
+
+            tc++;
+
+            switch(t.getLane()) {
+                case MAIN_THREAD -> sync.add(i);
+                case PER_PLAYER -> {
+                    lanes.computeIfAbsent(t.getLaneKey(), k -> new ArrayList<>()).add(t);
+                    async.add(i);
                 }
-            });
+                default -> {
+                    e.queue(() -> run(t));
+                    async.add(i);
+                }
+            }
+        }
+
+        for(List<Ticked> i : lanes.values()) {
+            e.queue(() -> i.forEach(this::run));
         }
 
         e.complete();
-//        Adapt.info(ix + "");
+        lanes.clear();
 
-        synchronized(newTicks) {
-            while(newTicks.isNotEmpty()) {
-                tc.incrementAndGet();
-                ticklist.add(newTicks.popRandom());
-            }
+        if(sync.isNotEmpty()) {
+            J.s(() -> {
+                sync.forEach(i -> run(i.getTicked()));
+                reschedule(sync);
+            });
+        }
+
+        reschedule(async);
+        async.clear();
+        due.clear();
+        lastDispatched = tc;
+        dispatched.put(tc);
+        load.put(spent.getAndSet(0) / 1000000D);
+        updateStretch();
+
+        if(reportLatch.flip()) {
+            Adapt.verbose("Ticker dispatched " + (int) dispatched.getAverage() + " of " + registry.size() + " registered objects per tick in " + Form.f(load.getAverage(), 2) + "ms (stretch " + Form.f(stretch, 2) + "x)");
         }
 
-        synchronized(removeTicks) {
-            while(removeTicks.isNotEmpty()) {
-                tc.incrementAndGet();
-                String id = removeTicks.popRandom();
+        ticking = false;
+    }
+
+    private void run(Ticked t) {
+        long start = System.nanoTime();
+
+        try {
+            t.tick();
+        } catch(Throwable e) {
+            e.printStackTrace();
+        }
+
+        long time = System.nanoTime() - start;
+        spent.addAndGet(time);
+        profiler.record(t, time);
+    }
+
+    private void updateStretch() {
+        AdaptConfig c = AdaptConfig.get();
 
-                for(int i = 0; i < ticklist.size(); i++) {
-                    if(ticklist.get(i).getId().equals(id)) {
-                        ticklist.remove(i);
-                        break;
-                    }
+        if(load.getAverage() > c.getTickBudgetMs() || serverTick.getAverage() > c.getOverloadedServerTickMs()) {
+            stretch = Math.min(c.getMaxTickStretch(), stretch * 1.05);
+        } else if(stretch > 1) {
+            stretch = Math.max(1, stretch * 0.98);
+        }
+    }
+
+    private void reschedule(List<TickWheel.Entry> entries) {
+        synchronized(registry) {
+            for(TickWheel.Entry i : entries) {
+                if(registry.getEntry(i.getSlot()) == i) {
+                    schedule(i.getTicked(), i.getSlot());
                 }
             }
         }
+    }
 
-        ticking = false;
-        tc.get();
+    private void schedule(Ticked t, int slot) {
+        registry.setEntry(slot, wheel.schedule(t, slot, nextDue(t)));
+    }
+
+    private long nextDue(Ticked t) {
+        return t.getLastTick() + (long) (t.getInterval() * t.getPriority().stretch(stretch)) + 1;
     }
 }
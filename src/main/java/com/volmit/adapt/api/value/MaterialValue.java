@@ -18,12 +18,10 @@
 
 package com.volmit.adapt.api.value;
 
-import com.google.gson.Gson;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.AdaptConfig;
+import com.volmit.adapt.api.data.Json;
 import com.volmit.adapt.util.Form;
-import com.volmit.adapt.util.IO;
-import com.volmit.adapt.util.JSONObject;
 import com.volmit.adapt.util.PrecisionStopwatch;
 import lombok.Getter;
 import org.bukkit.Bukkit;
@@ -54,7 +52,7 @@ public class MaterialValue {
 
         File l = Adapt.instance.getDataFile("data", "value-cache.json");
         try {
-            IO.writeAll(l, new JSONObject(new Gson().toJson(valueCache)).toString(4));
+            Json.write(l, valueCache);
         } catch(IOException e) {
             e.printStackTrace();
         }
@@ -67,7 +65,7 @@ public class MaterialValue {
 
             if(!l.exists()) {
                 try {
-                    IO.writeAll(l, new JSONObject(new Gson().toJson(dummy)).toString(4));
+                    Json.write(l, dummy);
                 } catch(IOException e) {
                     e.printStackTrace();
                     valueCache = dummy;
@@ -76,7 +74,7 @@ public class MaterialValue {
             }
 
             try {
-                valueCache = new Gson().fromJson(IO.readAll(l), MaterialValue.class);
+                valueCache = Json.read(l, MaterialValue.class);
             } catch(IOException e) {
                 e.printStackTrace();
                 valueCache = new MaterialValue();
@@ -18,28 +18,25 @@
 
 package com.volmit.adapt.api.world;
 
-import com.google.gson.Gson;
 import com.volmit.adapt.Adapt;
+import com.volmit.adapt.AdaptConfig;
 import com.volmit.adapt.api.notification.AdvancementNotification;
 import com.volmit.adapt.api.notification.Notifier;
 import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.tick.TickLane;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.ChronoLatch;
 import com.volmit.adapt.util.Form;
-import com.volmit.adapt.util.IO;
-import com.volmit.adapt.util.JSONObject;
 import com.volmit.adapt.util.M;
 import com.volmit.adapt.util.RollingSequence;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
-import lombok.SneakyThrows;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.util.Vector;
 
-import java.io.File;
 import java.util.concurrent.TimeUnit;
 
 @EqualsAndHashCode(callSuper = false)
@@ -57,14 +54,16 @@ public class AdaptPlayer extends TickedObject {
     private Vector velocity;
     private Location lastpos;
 
-    public AdaptPlayer(Player p) {
+    public AdaptPlayer(Player p, PlayerData data) {
         super("players", p.getUniqueId().toString(), 50);
+        setLane(TickLane.PER_PLAYER);
+        setPriority(TickPriority.HIGH);
         this.player = p;
-        data = loadPlayerData();
+        this.data = data;
         updatelatch = new ChronoLatch(1000);
-        savelatch = new ChronoLatch(60000);
+        savelatch = new ChronoLatch(Adapt.instance.getPlayerPersistence().isJournaled() ? AdaptConfig.get().getJournaledPlayerSaveIntervalMs() : AdaptConfig.get().getPlayerSaveIntervalMs());
         not = new Notifier(this);
-        actionBarNotifier = new Notifier(this);
+        actionBarNotifier = new Notifier(this, "actionbar");
         advancementHandler = new AdvancementHandler(this);
         speed = new RollingSequence(7);
         lastloc = M.ms();
@@ -72,6 +71,11 @@ public class AdaptPlayer extends TickedObject {
         velocity = new Vector();
     }
 
+    @Override
+    public String getLaneKey() {
+        return player.getUniqueId().toString();
+    }
+
     public boolean canConsumeFood(double cost, int minFood)
     {
         return (player.getFoodLevel() + player.getSaturation()) - minFood > cost;
@@ -140,44 +144,40 @@ public class AdaptPlayer extends TickedObject {
         return getData().getSkillLine(l);
     }
 
-    @SneakyThrows
     private void save() {
-        IO.writeAll(new File(Bukkit.getServer().getPluginManager().getPlugin(Adapt.instance.getName()).getDataFolder() + File.separator + "data" + File.separator + "players" + File.separator + player.getUniqueId() + ".json"), new JSONObject(new Gson().toJson(data)).toString(4));
+        Adapt.instance.getPlayerPersistence().save(player.getUniqueId(), data);
     }
 
     @Override
     public void unregister() {
         super.unregister();
+        not.unregister();
+        actionBarNotifier.unregister();
         getAdvancementHandler().deactivate();
-        save();
-    }
-
-    private PlayerData loadPlayerData() {
-        File f = new File(Bukkit.getServer().getPluginManager().getPlugin(Adapt.instance.getName()).getDataFolder() + File.separator + "data" + File.separator + "players" + File.separator + player.getUniqueId() + ".json");
-
-        if(f.exists()) {
-            try {
-                return new Gson().fromJson(IO.readAll(f), PlayerData.class);
-            } catch(Throwable ignored) {
-
-            }
+        synchronized(data) {
+            data.flushXP(null);
         }
 
-        return new PlayerData();
+        getServer().getLeaderboards().update(player.getUniqueId(), player.getName(), data);
+        save();
+        Adapt.instance.getPlayerPersistence().release(player.getUniqueId());
     }
 
     @Override
     public void onTick() {
-        if(updatelatch.flip()) {
-            getData().update(this);
+        // Held against the writer's snapshot, which runs on the main thread
+        synchronized(data) {
+            data.flushXP(not);
+
+            if(updatelatch.flip()) {
+                getData().update(this);
+            }
         }
 
-        if(savelatch.flip()) {
+        if(savelatch.flip() && data.isDirty()) {
             save();
         }
 
-        getServer().takeSpatial(this);
-
         Location at = player.getLocation();
 
         if(lastpos != null) {
@@ -228,6 +228,7 @@ public class AdaptPlayer extends TickedObject {
         long timeGone = M.ms() - getData().getLastLogin();
         boolean first = getData().getLastLogin() == 0;
         getData().setLastLogin(M.ms());
+        getData().markDirty();
         long boostTime = (long) Math.min(timeGone / 12D, TimeUnit.HOURS.toMillis(1));
 
         if(boostTime < TimeUnit.MINUTES.toMillis(5)) {
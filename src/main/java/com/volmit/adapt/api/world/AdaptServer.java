@@ -18,22 +18,24 @@
 
 package com.volmit.adapt.api.world;
 
-import com.google.gson.Gson;
 import com.volmit.adapt.Adapt;
+import com.volmit.adapt.AdaptConfig;
 import com.volmit.adapt.api.adaptation.Adaptation;
+import com.volmit.adapt.api.adaptation.AdaptationSubscriptions;
+import com.volmit.adapt.api.data.WorldData;
 import com.volmit.adapt.api.notification.AdvancementNotification;
 import com.volmit.adapt.api.notification.SoundNotification;
 import com.volmit.adapt.api.skill.Skill;
 import com.volmit.adapt.api.skill.SkillRegistry;
 import com.volmit.adapt.api.tick.TickedObject;
 import com.volmit.adapt.api.xp.SpatialXP;
-import com.volmit.adapt.api.xp.XP;
+import com.volmit.adapt.api.xp.SpatialXPIndex;
 import com.volmit.adapt.content.item.ExperienceOrb;
 import com.volmit.adapt.content.item.KnowledgeOrb;
 import com.volmit.adapt.util.C;
-import com.volmit.adapt.util.IO;
+import com.volmit.adapt.util.ChronoLatch;
 import com.volmit.adapt.util.J;
-import com.volmit.adapt.util.M;
+import com.volmit.adapt.util.RollingSequence;
 import lombok.Getter;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -44,24 +46,37 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.entity.ProjectileLaunchEvent;
 import org.bukkit.event.inventory.CraftItemEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.*;
 
 public class AdaptServer extends TickedObject {
     private final Map<Player, AdaptPlayer> players;
     @Getter
-    private final List<SpatialXP> spatialTickets;
+    private final SpatialXPIndex spatialXP;
     @Getter
     private SkillRegistry skillRegistry;
+    @Getter
+    private final AdaptationSubscriptions adaptationSubscriptions;
+    @Getter
+    private final RollingSequence joinLatency;
+    @Getter
+    private final Leaderboards leaderboards;
+    private final ChronoLatch leaderboardLatch;
 
     public AdaptServer() {
         super("core", UUID.randomUUID().toString(), 1000);
-        spatialTickets = new ArrayList<>();
+        spatialXP = new SpatialXPIndex();
         players = new HashMap<>();
+        adaptationSubscriptions = new AdaptationSubscriptions();
+        joinLatency = new RollingSequence(64);
+        leaderboards = new Leaderboards(AdaptConfig.get().getLeaderboardSize());
+        leaderboardLatch = new ChronoLatch(60000);
         try {
             skillRegistry = new SkillRegistry();
         } catch(IOException e) {
@@ -74,49 +89,34 @@ public class AdaptServer extends TickedObject {
     }
 
     public void offer(SpatialXP xp) {
-        spatialTickets.add(xp);
+        spatialXP.offer(xp);
     }
 
-    public void takeSpatial(AdaptPlayer p) {
-        J.attempt(() -> {
-            SpatialXP x = spatialTickets.getRandom();
-
-            if(x == null) {
-                return;
-            }
+    public void join(Player p) {
+        if(!players.containsKey(p)) {
+            long start = System.nanoTime();
+            PlayerData data;
 
-            if(M.ms() > x.getMs()) {
-                spatialTickets.remove(x);
+            try {
+                data = Adapt.instance.getPlayerPersistence().claim(p.getUniqueId(), AdaptConfig.get().getPrefetchTimeoutMs());
+            } catch(IOException e) {
+                // Playing on empty data would overwrite their record with the next save
+                Adapt.error("Failed to load player data for " + p.getName() + ", kicking them");
+                e.printStackTrace();
+                p.kickPlayer("Adapt could not load your data, please rejoin");
                 return;
             }
 
-            if(p.getPlayer().getWorld().equals(x.getLocation().getWorld())) {
-                double c = p.getPlayer().getLocation().distanceSquared(x.getLocation());
-                if(c < x.getRadius() * x.getRadius()) {
-                    double distl = M.lerpInverse(0, x.getRadius() * x.getRadius(), c);
-                    double xp = x.getXp() / (1.5D * ((distl * 9) + 1));
-                    x.setXp(x.getXp() - xp);
-
-                    if(x.getXp() < 10) {
-                        xp += x.getXp();
-                        spatialTickets.remove(x);
-                    }
-
-                    XP.xp(p, x.getSkill(), xp);
-                }
-            }
-        });
-    }
-
-    public void join(Player p) {
-        if(!players.containsKey(p)) {
-            players.put(p, new AdaptPlayer(p));
+            players.put(p, new AdaptPlayer(p, data));
+            joinLatency.put((System.nanoTime() - start) / 1000000D);
             players.get(p).loggedIn();
+            adaptationSubscriptions.join(players.get(p), skillRegistry);
         }
     }
 
     public void quit(Player p) {
         if(players.containsKey(p)) {
+            adaptationSubscriptions.quit(p, skillRegistry);
             players.remove(p).unregister();
         }
     }
@@ -127,6 +127,8 @@ public class AdaptServer extends TickedObject {
             quit(i);
         }
         skillRegistry.unregister();
+        spatialXP.unregister();
+        leaderboards.save();
         super.unregister();
     }
 
@@ -175,6 +177,29 @@ public class AdaptServer extends TickedObject {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(ChunkLoadEvent e) {
+        WorldData.of(e.getWorld()).prefetch(e.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(ChunkUnloadEvent e) {
+        WorldData.release(e.getWorld(), e.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void on(AsyncPlayerPreLoginEvent e) {
+        if(e.getLoginResult() == AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            try {
+                Adapt.instance.getPlayerPersistence().prefetch(e.getUniqueId());
+            } catch(IOException ex) {
+                Adapt.error("Failed to load player data for " + e.getName() + ", denying their login");
+                ex.printStackTrace();
+                e.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, "Adapt could not load your data, please try again");
+            }
+        }
+    }
+
     @EventHandler
     public void on(PlayerJoinEvent e) {
         join(e.getPlayer());
@@ -202,12 +227,11 @@ public class AdaptServer extends TickedObject {
 
     @Override
     public void onTick() {
-        synchronized(spatialTickets) {
-            for(int i = 0; i < spatialTickets.size(); i++) {
-                if(M.ms() > spatialTickets.get(i).getMs()) {
-                    spatialTickets.remove(i);
-                }
-            }
+        Adapt.instance.getPlayerPersistence().trimCache();
+        Adapt.instance.getPlayerPersistence().expireStaged(60000);
+
+        if(leaderboardLatch.flip()) {
+            J.a(leaderboards::save);
         }
     }
 
@@ -218,21 +242,14 @@ public class AdaptServer extends TickedObject {
             return getPlayer(Bukkit.getPlayer(player)).getData();
         }
 
-        
-        File f = new File(Bukkit.getServer().getPluginManager().getPlugin(Adapt.instance.getName()).getDataFolder() + File.separator + "data" + File.separator + "players" + File.separator + player + ".json");
-
-        if(f.exists()) {
-            try {
-                return new Gson().fromJson(IO.readAll(f), PlayerData.class);
-            } catch(Throwable ignored) {
-
-            }
-        }
-
-        return new PlayerData();
+        return Adapt.instance.getPlayerPersistence().peek(player);
     }
 
     public AdaptPlayer getPlayer(Player p) {
         return players.get(p);
     }
+
+    public List<AdaptPlayer> getAdaptPlayers() {
+        return new ArrayList<>(players.values());
+    }
 }
@@ -20,14 +20,47 @@ package com.volmit.adapt.api.world;
 
 import lombok.Getter;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
 
+/**
+ * Everything a player has seen of one kind. Enum kinds are backed by an
+ * {@link EnumSet}, a bitset by ordinal, everything else by a hash set, so checking a
+ * discovery doesn't get slower the more a player explores.
+ */
 public class Discovery<T> {
     @Getter
-    private final List<T> seen = new ArrayList<>();
+    private final Set<T> seen;
+    private transient volatile boolean dirty = false;
+
+    public Discovery() {
+        this(new HashSet<>());
+    }
+
+    private Discovery(Set<T> seen) {
+        this.seen = seen;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Discovery<T> of(Class<T> type) {
+        return type.isEnum() ? new Discovery<>((Set<T>) EnumSet.noneOf((Class) type)) : new Discovery<>();
+    }
 
     public boolean isNewDiscovery(T t) {
-        return seen.addIfMissing(t);
+        if(t != null && seen.add(t)) {
+            dirty = true;
+            return true;
+        }
+
+        return false;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void clean() {
+        dirty = false;
     }
 }
@@ -0,0 +1,282 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.world;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.data.Json;
+import com.volmit.adapt.api.data.PlayerPersistence;
+import com.volmit.adapt.api.data.PlayerRecord;
+import com.volmit.adapt.api.data.SqlitePlayerStore;
+import com.volmit.adapt.util.Callback;
+import com.volmit.adapt.util.Chunker;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Top players per skill line and by master xp. Each board keeps only the best
+ * entries in a sorted set, so an update is a log n remove and insert, or nothing at
+ * all when the player doesn't make the cut. Players report in when they level up
+ * and when they leave, and the boards are kept in a small index file instead of
+ * being computed from every player file.
+ * <p>
+ * A player whose xp drops, like on a skill reset, can fall off a board while
+ * someone untracked should take their place. {@link #rebuild(int, Callback)} fixes
+ * that by scanning every stored player.
+ */
+public class Leaderboards {
+    public static final String MASTER = "master";
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::getXp).reversed().thenComparing(Entry::getId);
+    private final int size;
+    private final Map<String, Board> boards;
+    private final AtomicBoolean dirty;
+
+    public Leaderboards(int size) {
+        this(size, true);
+    }
+
+    private Leaderboards(int size, boolean load) {
+        this.size = Math.max(1, size);
+        boards = new ConcurrentHashMap<>();
+        dirty = new AtomicBoolean();
+
+        if(load) {
+            load();
+        }
+    }
+
+    public static File getFile() {
+        return Adapt.instance.getDataFile("data", "leaderboards.json");
+    }
+
+    /**
+     * Reports every skill line and the master xp of a player.
+     */
+    public void update(UUID id, String name, PlayerData data) {
+        update(MASTER, id, name, data.getMasterXp());
+
+        for(Map.Entry<String, PlayerSkillLine> i : data.getSkillLines().entrySet()) {
+            update(i.getKey(), id, name, i.getValue().getXp());
+        }
+    }
+
+    public void update(String board, UUID id, String name, double xp) {
+        if(boards.computeIfAbsent(board, k -> new Board()).update(new Entry(id, name, xp), size)) {
+            dirty.set(true);
+        }
+    }
+
+    public List<Entry> getTop(String board, int limit) {
+        Board b = boards.get(board);
+        return b == null ? List.of() : b.top(limit);
+    }
+
+    /**
+     * @return the 1 based rank or 0 when the player isn't on the board
+     */
+    public int getRank(String board, UUID id) {
+        Board b = boards.get(board);
+        return b == null ? 0 : b.rank(id);
+    }
+
+    public Set<String> getBoards() {
+        return boards.keySet();
+    }
+
+    /**
+     * Recomputes every board from all stored players, loading them in parallel,
+     * then swaps the result in. Online players are taken from their live data. With
+     * the sqlite store the boards come straight from its indexes and only players it
+     * doesn't hold yet are decoded.
+     *
+     * @return how many players were ranked
+     */
+    public int rebuild(int threads, Callback<Double> progress) throws IOException {
+        PlayerPersistence persistence = Adapt.instance.getPlayerPersistence();
+        Leaderboards fresh = new Leaderboards(size, false);
+        List<UUID> ids;
+        int ranked = 0;
+
+        if(persistence.getStore() instanceof SqlitePlayerStore sql) {
+            for(String i : sql.getSkills()) {
+                for(PlayerRecord.SkillRow j : sql.getTop(i, size)) {
+                    fresh.update(i, j.getId(), Bukkit.getOfflinePlayer(j.getId()).getName(), j.getXp());
+                }
+            }
+
+            for(PlayerRecord.SkillRow i : sql.getTopMaster(size)) {
+                fresh.update(MASTER, i.getId(), Bukkit.getOfflinePlayer(i.getId()).getName(), i.getXp());
+            }
+
+            ranked += sql.listIndexed().size();
+            ids = new ArrayList<>(sql.listUnindexed());
+        } else {
+            ids = new ArrayList<>(persistence.getStore().list());
+        }
+
+        new Chunker<>(ids).threads(Math.max(1, threads)).workload(32).execute(i -> {
+            try {
+                PlayerData data = persistence.load(i);
+                fresh.update(i, Bukkit.getOfflinePlayer(i).getName(), data);
+            } catch(Throwable e) {
+                Adapt.error("Failed to rank " + i + ": " + e.getMessage());
+            }
+        }, progress, 1000);
+
+        for(AdaptPlayer i : Adapt.instance.getAdaptServer().getAdaptPlayers()) {
+            fresh.update(i.getPlayer().getUniqueId(), i.getPlayer().getName(), i.getData());
+        }
+
+        boards.clear();
+        boards.putAll(fresh.boards);
+        dirty.set(true);
+        save();
+        return ranked + ids.size();
+    }
+
+    /**
+     * Writes the index if anything changed since the last save.
+     */
+    public void save() {
+        if(!dirty.getAndSet(false)) {
+            return;
+        }
+
+        Map<String, List<Entry>> index = new HashMap<>();
+
+        for(Map.Entry<String, Board> i : boards.entrySet()) {
+            index.put(i.getKey(), i.getValue().top(size));
+        }
+
+        try {
+            Json.write(getFile(), new Index(index));
+        } catch(IOException e) {
+            dirty.set(true);
+            Adapt.error("Failed to save leaderboards");
+            e.printStackTrace();
+        }
+    }
+
+    private void load() {
+        File f = getFile();
+
+        if(!f.exists()) {
+            return;
+        }
+
+        try {
+            Index index = Json.read(f, Index.class);
+
+            if(index == null || index.boards == null) {
+                return;
+            }
+
+            for(Map.Entry<String, List<Entry>> i : index.boards.entrySet()) {
+                for(Entry j : i.getValue()) {
+                    update(i.getKey(), j.getId(), j.getName(), j.getXp());
+                }
+            }
+
+            dirty.set(false);
+        } catch(IOException e) {
+            Adapt.error("Failed to load leaderboards, run /adapt top rebuild");
+            e.printStackTrace();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID id;
+        private String name;
+        private double xp;
+    }
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    private static class Index {
+        private Map<String, List<Entry>> boards;
+    }
+
+    private static class Board {
+        private final TreeSet<Entry> ranked = new TreeSet<>(ORDER);
+        private final Map<UUID, Entry> entries = new HashMap<>();
+
+        /**
+         * @return true if the board changed
+         */
+        synchronized boolean update(Entry e, int size) {
+            Entry old = entries.get(e.getId());
+
+            if(old == null && ranked.size() >= size && ORDER.compare(e, ranked.last()) >= 0) {
+                return false;
+            }
+
+            if(old != null) {
+                if(old.getXp() == e.getXp()) {
+                    return false;
+                }
+
+                ranked.remove(old);
+            }
+
+            entries.put(e.getId(), e);
+            ranked.add(e);
+
+            while(ranked.size() > size) {
+                entries.remove(ranked.pollLast().getId());
+            }
+
+            return true;
+        }
+
+        synchronized List<Entry> top(int limit) {
+            List<Entry> top = new ArrayList<>(Math.min(limit, ranked.size()));
+
+            for(Entry i : ranked) {
+                if(top.size() >= limit) {
+                    break;
+                }
+
+                top.add(i);
+            }
+
+            return top;
+        }
+
+        synchronized int rank(UUID id) {
+            Entry e = entries.get(id);
+            return e == null ? 0 : ranked.headSet(e).size() + 1;
+        }
+    }
+}
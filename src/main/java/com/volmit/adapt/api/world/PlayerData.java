@@ -20,11 +20,14 @@ package com.volmit.adapt.api.world;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.AdaptConfig;
+import com.volmit.adapt.api.data.PlayerJournal;
 import com.volmit.adapt.api.notification.ActionBarNotification;
+import com.volmit.adapt.api.notification.Notifier;
 import com.volmit.adapt.api.notification.SoundNotification;
 import com.volmit.adapt.api.notification.TitleNotification;
 import com.volmit.adapt.api.xp.XP;
 import com.volmit.adapt.api.xp.XPMultiplier;
+import com.volmit.adapt.api.xp.XPMultiplierStack;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Form;
 import lombok.Data;
@@ -41,33 +44,125 @@ import java.util.*;
 @NoArgsConstructor
 public class PlayerData {
     private final Map<String, PlayerSkillLine> skillLines = new HashMap<>();
-    private Map<String, Double> stats = new HashMap<>();
+    private PlayerStats stats = new PlayerStats();
     private String last = "none";
     private Set<String> advancements = new HashSet<>();
-    private Discovery<Biome> seenBiomes = new Discovery<>();
-    private Discovery<EntityType> seenMobs = new Discovery<>();
-    private Discovery<Material> seenFoods = new Discovery<>();
-    private Discovery<Material> seenItems = new Discovery<>();
-    private Discovery<String> seenRecipes = new Discovery<>();
-    private Discovery<String> seenEnchants = new Discovery<>();
-    private Discovery<String> seenWorlds = new Discovery<>();
-    private Discovery<String> seenPeople = new Discovery<>();
-    private Discovery<World.Environment> seenEnvironments = new Discovery<>();
-    private Discovery<String> seenPotionEffects = new Discovery<>();
-    private Discovery<String> seenBlocks = new Discovery<>();
-    private List<XPMultiplier> multipliers = new ArrayList<>();
+    private Discovery<Biome> seenBiomes = Discovery.of(Biome.class);
+    private Discovery<EntityType> seenMobs = Discovery.of(EntityType.class);
+    private Discovery<Material> seenFoods = Discovery.of(Material.class);
+    private Discovery<Material> seenItems = Discovery.of(Material.class);
+    private Discovery<String> seenRecipes = Discovery.of(String.class);
+    private Discovery<String> seenEnchants = Discovery.of(String.class);
+    private Discovery<String> seenWorlds = Discovery.of(String.class);
+    private Discovery<String> seenPeople = Discovery.of(String.class);
+    private Discovery<World.Environment> seenEnvironments = Discovery.of(World.Environment.class);
+    private Discovery<String> seenPotionEffects = Discovery.of(String.class);
+    private Discovery<String> seenBlocks = Discovery.of(String.class);
+    private XPMultiplierStack multipliers = new XPMultiplierStack();
     private long wisdom = 0;
     private double multiplier = 0;
     private long lastLogin = 0;
     private double masterXp = 1;
     private double lastMasterXp = 0;
+    private long journalSeq = 0;
+    private transient volatile boolean dirty = false;
+    private transient volatile boolean statsDirty = false;
+    private transient PlayerJournal journal;
+
+    /**
+     * Flags this player for the next save. Skill lines and discoveries track their
+     * own changes, this covers everything stored directly on the player.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        if(dirty || statsDirty) {
+            return true;
+        }
+
+        synchronized(skillLines) {
+            for(PlayerSkillLine i : skillLines.values()) {
+                if(i.isDirty()) {
+                    return true;
+                }
+            }
+        }
+
+        for(Discovery<?> i : getDiscoveries()) {
+            if(i.isDirty()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Clears every dirty flag. Called right before serializing, so anything that
+     * changes while the save is running flags the player again.
+     */
+    public void clean() {
+        dirty = false;
+        statsDirty = false;
+
+        synchronized(skillLines) {
+            for(PlayerSkillLine i : skillLines.values()) {
+                i.clean();
+            }
+        }
+
+        for(Discovery<?> i : getDiscoveries()) {
+            i.clean();
+        }
+    }
+
+    /**
+     * Starts recording skill line changes into the given journal.
+     */
+    public void setJournal(PlayerJournal journal) {
+        this.journal = journal;
+
+        synchronized(skillLines) {
+            for(PlayerSkillLine i : skillLines.values()) {
+                i.setJournal(journal);
+            }
+        }
+    }
+
+    /**
+     * Applies the xp each skill line queued since the last flush. Lines are copied
+     * first so the journal lock is never taken while holding the skill line map.
+     */
+    public void flushXP(Notifier not) {
+        List<PlayerSkillLine> lines;
+
+        synchronized(skillLines) {
+            lines = new ArrayList<>(skillLines.values());
+        }
+
+        for(PlayerSkillLine i : lines) {
+            i.flushXP(not);
+        }
+
+        if(not != null) {
+            not.publishXP();
+        }
+    }
+
+    public List<Discovery<?>> getDiscoveries() {
+        return List.of(seenBiomes, seenMobs, seenFoods, seenItems, seenRecipes, seenEnchants, seenWorlds, seenPeople, seenEnvironments, seenPotionEffects, seenBlocks);
+    }
 
     public void giveMasterXp(double xp) {
         masterXp += xp;
+        dirty = true;
     }
 
     public void globalXPMultiplier(double v, int duration) {
         multipliers.add(new XPMultiplier(v, duration));
+        dirty = true;
     }
 
     public boolean isGranted(String advancement) {
@@ -75,32 +170,30 @@ public class PlayerData {
     }
 
     public void ensureGranted(String advancement) {
-        advancements.add(advancement);
+        if(advancements.add(advancement)) {
+            dirty = true;
+        }
     }
 
     public double getStat(String key) {
-        Double d = stats.get(key);
-        return d == null ? 0 : d;
+        return stats.get(Stat.of(key));
+    }
+
+    public double getStat(Stat stat) {
+        return stats.get(stat);
     }
 
     public void addStat(String key, double amt) {
-        if(!stats.containsKey(key)) {
-            stats.put(key, amt);
-        } else {
-            stats.put(key, stats.get(key) + amt);
-        }
+        addStat(Stat.of(key), amt);
     }
 
-    public void update(AdaptPlayer p) {
-        double m = 1;
-        for(XPMultiplier i : multipliers.copy()) {
-            if(i.isExpired()) {
-                multipliers.remove(i);
-                continue;
-            }
+    public void addStat(Stat stat, double amt) {
+        stats.add(stat, amt);
+        statsDirty = true;
+    }
 
-            m += i.getMultiplier();
-        }
+    public void update(AdaptPlayer p) {
+        double m = 1 + multipliers.expire();
 
         if(m <= 0) {
             m = 0.01;
@@ -115,12 +208,13 @@ public class PlayerData {
         for(String i : skillLines.k()) {
             if(getSkillLine(i) == null) {
                 skillLines.remove(i);
+                dirty = true;
                 Adapt.warn("Removed unknown skill line '" + i + "' from " + p.getPlayer().getName());
                 continue;
             }
 
-            if(getSkillLine(i).getXp() == 0 && getSkillLine(i).getKnowledge() == 0) {
-                skillLines.remove(i);
+            if(isEmpty(getSkillLine(i))) {
+                prune(i);
                 continue;
             }
 
@@ -133,6 +227,7 @@ public class PlayerData {
         if(oldLevel != level)
         {
             setLastMasterXp(getMasterXp());
+            p.getServer().getLeaderboards().update(Leaderboards.MASTER, p.getPlayer().getUniqueId(), p.getPlayer().getName(), getMasterXp());
             p.getNot().queue(SoundNotification.builder()
                     .sound(Sound.BLOCK_ENCHANTMENT_TABLE_USE)
                     .volume(1f)
@@ -200,6 +295,27 @@ public class PlayerData {
         return (int) (XP.getLevelForXp(getMasterXp()) * AdaptConfig.get().getPowerPerLevel());
     }
 
+    /**
+     * Grants only reach a line's xp once flushed, so a line counts as empty only
+     * when nothing is pending and it hasn't just been created for a grant.
+     */
+    private static boolean isEmpty(PlayerSkillLine line) {
+        return line.getXp() == 0 && line.getKnowledge() == 0 && !line.hasPendingXP() && !line.hasEarnedWithin(60000);
+    }
+
+    /**
+     * Drops an empty line, putting it back if a grant fetched it just before.
+     */
+    private void prune(String line) {
+        synchronized(skillLines) {
+            PlayerSkillLine l = skillLines.remove(line);
+
+            if(l != null && l.hasPendingXP()) {
+                skillLines.put(line, l);
+            }
+        }
+    }
+
     public PlayerSkillLine getSkillLine(String skillLine) {
         if(Adapt.instance.getAdaptServer().getSkillRegistry().getSkill(skillLine) == null) {
             return null;
@@ -219,6 +335,7 @@ public class PlayerData {
 
             PlayerSkillLine s = new PlayerSkillLine();
             s.setLine(skillLine);
+            s.setJournal(journal);
             skillLines.put(skillLine, s);
             return s;
         }
@@ -226,5 +343,6 @@ public class PlayerData {
 
     public void addWisdom() {
         wisdom++;
+        dirty = true;
     }
 }
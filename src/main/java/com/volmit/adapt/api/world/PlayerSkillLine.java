@@ -19,24 +19,28 @@
 package com.volmit.adapt.api.world;
 
 import com.volmit.adapt.AdaptConfig;
+import com.volmit.adapt.api.data.PlayerJournal;
 import com.volmit.adapt.api.adaptation.Adaptation;
 import com.volmit.adapt.api.notification.ActionBarNotification;
 import com.volmit.adapt.api.notification.Notifier;
 import com.volmit.adapt.api.notification.SoundNotification;
 import com.volmit.adapt.api.notification.TitleNotification;
 import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.xp.Curves;
 import com.volmit.adapt.api.xp.XP;
 import com.volmit.adapt.api.xp.XPMultiplier;
+import com.volmit.adapt.api.xp.XPMultiplierStack;
 import com.volmit.adapt.util.M;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.bukkit.Sound;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
 
 @Data
 @NoArgsConstructor
@@ -52,19 +56,79 @@ public class PlayerSkillLine {
     private long last = M.ms();
     private Map<String, Object> storage = new HashMap<>();
     private Map<String, PlayerAdaptation> adaptations = new HashMap<>();
-    private List<XPMultiplier> multipliers = new ArrayList<>();
-
+    private XPMultiplierStack multipliers = new XPMultiplierStack();
+    private transient volatile boolean dirty = false;
+    private transient volatile LevelCache levelCache;
+    private transient PlayerJournal journal;
+    private transient final DoubleAdder pendingXP = new DoubleAdder();
+    private transient final DoubleAdder pendingSilentXP = new DoubleAdder();
+
+    /**
+     * Queues raw xp for this line. Grants may arrive from any thread and only touch
+     * the accumulators; multipliers, freshness and notifications are applied once
+     * per tick by {@link #flushXP(Notifier)}.
+     */
     public void giveXP(Notifier p, double xp) {
-        freshness -= xp * 0.001;
-        xp = multiplier * xp;
-        this.xp += xp;
+        (p != null ? pendingXP : pendingSilentXP).add(xp);
+    }
+
+    /**
+     * Applies everything granted since the last flush in a single step. Called from
+     * the owning player's tick, and before saving so queued xp is never lost.
+     */
+    public void flushXP(Notifier p) {
+        double notified = pendingXP.sumThenReset();
+        double silent = pendingSilentXP.sumThenReset();
+        double raw = notified + silent;
+
+        if(raw == 0) {
+            return;
+        }
 
-        if(p != null) {
+        freshness -= raw * 0.001;
+        double gained = multiplier * raw;
+        journaled(j -> j.xp(line, gained), () -> this.xp += gained);
+
+        if(notified != 0) {
             last = M.ms();
-            p.notifyXP(line, xp);
+
+            if(p != null) {
+                p.notifyXP(line, multiplier * notified);
+            }
         }
     }
 
+    public boolean hasPendingXP() {
+        return pendingXP.sum() != 0 || pendingSilentXP.sum() != 0;
+    }
+
+    /**
+     * Records a change in the journal, when there is one, and applies it under the
+     * journal's lock so a concurrent save sees both or neither.
+     */
+    private void journaled(Consumer<PlayerJournal> entry, Runnable change) {
+        PlayerJournal j = journal;
+
+        if(j == null) {
+            change.run();
+        } else {
+            synchronized(j) {
+                entry.accept(j);
+                change.run();
+            }
+        }
+
+        dirty = true;
+    }
+
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public void clean() {
+        dirty = false;
+    }
+
     public boolean hasEarnedWithin(long ms) {
         return M.ms() - last < ms;
     }
@@ -91,7 +155,7 @@ public class PlayerSkillLine {
         PlayerAdaptation v = new PlayerAdaptation();
         v.setId(a.getName());
         v.setLevel(Math.min(level, a.getMaxLevel()));
-        adaptations.put(a.getName(), v);
+        journaled(j -> j.adaptation(line, v.getId(), v.getLevel()), () -> adaptations.put(a.getName(), v));
     }
 
     public Skill getRawSkill(AdaptPlayer p) {
@@ -136,16 +200,7 @@ public class PlayerSkillLine {
             rfreshness += (freshness - rfreshness) * 0.265;
         }
 
-        double m = rfreshness;
-
-        for(XPMultiplier i : multipliers.copy()) {
-            if(i.isExpired()) {
-                multipliers.remove(i);
-                continue;
-            }
-
-            m += i.getMultiplier();
-        }
+        double m = rfreshness + multipliers.expire();
 
         if(m <= 0) {
             m = 0.01;
@@ -165,13 +220,16 @@ public class PlayerSkillLine {
 
         if(lastLevel < getLevel()) {
             long kb = getKnowledge();
+            // Not journaled, replaying the xp that caused it repeats the level up along with its master xp
             for(int i = lastLevel; i < getLevel(); i++) {
-                giveKnowledge((i / 13) + 1);
+                knowledge += (i / 13) + 1;
+                dirty = true;
                 p.getData().giveMasterXp((i * AdaptConfig.get().getPlayerXpPerSkillLevelUpLevelMultiplier()) + AdaptConfig.get().getPlayerXpPerSkillLevelUpBase());
             }
 
             notifyLevel(p, getLevel(), getKnowledge());
             lastLevel = getLevel();
+            p.getServer().getLeaderboards().update(line, p.getPlayer().getUniqueId(), p.getPlayer().getName(), getXp());
         }
     }
 
@@ -232,7 +290,7 @@ public class PlayerSkillLine {
     }
 
     public void giveKnowledge(long points) {
-        this.knowledge += points;
+        journaled(j -> j.knowledge(line, points), () -> knowledge += points);
     }
 
     public double getMinimumXPForLevel() {
@@ -251,8 +309,21 @@ public class PlayerSkillLine {
         return XP.getXpForLevel(getLevel());
     }
 
+    /**
+     * Cached until xp or the configured curve changes, this is asked for many times
+     * per tick and by every gui.
+     */
     public double getAbsoluteLevel() {
-        return XP.getLevelForXp(xp);
+        double x = xp;
+        Curves curve = AdaptConfig.get().getXpCurve();
+        LevelCache c = levelCache;
+
+        if(c == null || c.xp != x || c.curve != curve) {
+            c = new LevelCache(x, curve, curve.getLevelForXp(x));
+            levelCache = c;
+        }
+
+        return c.level;
     }
 
     public double getLevelProgress() {
@@ -269,14 +340,22 @@ public class PlayerSkillLine {
 
     public void boost(double v, int i) {
         multipliers.add(new XPMultiplier(v, i));
+        dirty = true;
     }
 
     public boolean spendKnowledge(int c) {
         if(getKnowledge() >= c) {
-            setKnowledge(getKnowledge() - c);
+            journaled(j -> j.knowledge(line, -c), () -> knowledge -= c);
             return true;
         }
 
         return false;
     }
+
+    @AllArgsConstructor
+    private static class LevelCache {
+        private final double xp;
+        private final Curves curve;
+        private final double level;
+    }
 }
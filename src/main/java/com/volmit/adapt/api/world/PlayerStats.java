@@ -0,0 +1,118 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.world;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * A player's stats indexed by {@link Stat} id. Values are stored as raw double bits
+ * in pages of 64 and updated with a compare and set, so adding never locks, boxes
+ * or allocates once a stat's page exists. Pages are shared when the page table
+ * grows, an add racing a new page can't get lost in a copy.
+ */
+public class PlayerStats {
+    private static final int PAGE = 64;
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[0];
+
+    public double get(Stat stat) {
+        AtomicLongArray p = page(stat.getId(), false);
+        return p == null ? 0 : Double.longBitsToDouble(p.get(stat.getId() % PAGE));
+    }
+
+    public void add(Stat stat, double amount) {
+        AtomicLongArray p = page(stat.getId(), true);
+        int i = stat.getId() % PAGE;
+        long prev;
+        long next;
+
+        do {
+            prev = p.get(i);
+            next = Double.doubleToRawLongBits(Double.longBitsToDouble(prev) + amount);
+        } while(!p.compareAndSet(i, prev, next));
+    }
+
+    public void set(Stat stat, double value) {
+        page(stat.getId(), true).set(stat.getId() % PAGE, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Visits every stat that has a value, by key.
+     */
+    public void forEach(ObjDoubleConsumer<String> consumer) {
+        AtomicLongArray[] p = pages;
+
+        for(int i = 0; i < p.length; i++) {
+            if(p[i] == null) {
+                continue;
+            }
+
+            for(int j = 0; j < PAGE; j++) {
+                long bits = p[i].get(j);
+
+                if(bits != 0) {
+                    consumer.accept(Stat.get(i * PAGE + j).getKey(), Double.longBitsToDouble(bits));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the stats out by key, for serializers.
+     */
+    public Map<String, Double> toMap() {
+        Map<String, Double> m = new LinkedHashMap<>();
+        forEach(m::put);
+        return m;
+    }
+
+    public int size() {
+        int[] size = {0};
+        forEach((k, v) -> size[0]++);
+        return size[0];
+    }
+
+    private AtomicLongArray page(int id, boolean create) {
+        AtomicLongArray[] p = pages;
+        int i = id / PAGE;
+
+        if(i < p.length && p[i] != null) {
+            return p[i];
+        }
+
+        if(!create) {
+            return null;
+        }
+
+        synchronized(this) {
+            p = pages;
+
+            if(i < p.length && p[i] != null) {
+                return p[i];
+            }
+
+            p = Arrays.copyOf(p, Math.max(p.length, i + 1));
+            p[i] = new AtomicLongArray(PAGE);
+            pages = p;
+            return p[i];
+        }
+    }
+}
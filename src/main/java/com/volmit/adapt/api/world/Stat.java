@@ -0,0 +1,76 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.world;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An interned stat key. Every key gets a small int id the first time it is seen, so
+ * {@link PlayerStats} can keep values in plain arrays. Hot paths should hold on to
+ * the handle, e.g. in a static field, instead of looking the key up each time.
+ */
+public final class Stat {
+    private static final Map<String, Stat> stats = new ConcurrentHashMap<>();
+    private static volatile Stat[] byId = new Stat[0];
+    @Getter
+    private final int id;
+    @Getter
+    private final String key;
+
+    private Stat(int id, String key) {
+        this.id = id;
+        this.key = key;
+    }
+
+    public static Stat of(String key) {
+        Stat s = stats.get(key);
+        return s != null ? s : register(key);
+    }
+
+    private static synchronized Stat register(String key) {
+        Stat s = stats.get(key);
+
+        if(s == null) {
+            Stat[] ids = Arrays.copyOf(byId, byId.length + 1);
+            s = new Stat(ids.length - 1, key);
+            ids[s.id] = s;
+            byId = ids;
+            stats.put(key, s);
+        }
+
+        return s;
+    }
+
+    public static Stat get(int id) {
+        Stat[] ids = byId;
+        return id < ids.length ? ids[id] : null;
+    }
+
+    public static int count() {
+        return byId.length;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
@@ -0,0 +1,112 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.api.xp;
+
+import com.volmit.adapt.Adapt;
+
+import java.util.Arrays;
+
+/**
+ * Inverts a {@link NewtonCurve} without searching from scratch. The xp of every
+ * whole level up to {@link #LEVELS} is tabulated once, a lookup binary searches the
+ * table, interpolates inside the level and finishes with a few Newton steps kept
+ * inside that level. Anything outside the table goes to the curve's own solver.
+ * <p>
+ * The table checks itself against the solver when built and steps aside if the two
+ * ever disagree, e.g. for a curve that isn't monotone.
+ */
+public class CurveTable {
+    public static final int LEVELS = 2048;
+    private static final double MAX_ERROR = 0.000001;
+    private final NewtonCurve curve;
+    private final double[] xp;
+    private final boolean valid;
+
+    public CurveTable(NewtonCurve curve) {
+        this.curve = curve;
+        xp = new double[LEVELS + 1];
+
+        for(int i = 0; i <= LEVELS; i++) {
+            xp[i] = curve.getXPForLevel(i);
+        }
+
+        valid = verify();
+    }
+
+    public double getLevelForXp(double x) {
+        if(!valid || !(x > xp[0]) || x >= xp[LEVELS]) {
+            return curve.computeLevelForXP(x, MAX_ERROR);
+        }
+
+        return interpolate(x);
+    }
+
+    private double interpolate(double x) {
+        int i = Arrays.binarySearch(xp, x);
+
+        if(i >= 0) {
+            return i;
+        }
+
+        int lo = -i - 2;
+        double hi = Math.nextDown(lo + 1D);
+        double level = Math.min(hi, lo + (x - xp[lo]) / (xp[lo + 1] - xp[lo]));
+
+        for(int j = 0; j < 8; j++) {
+            double at = curve.getXPForLevel(level);
+            double slope = (curve.getXPForLevel(level + 0.0001) - at) / 0.0001;
+            double step = (at - x) / slope;
+            level = Math.max(lo, Math.min(hi, level - step));
+
+            if(Math.abs(step) < 0.000000001) {
+                break;
+            }
+        }
+
+        return level;
+    }
+
+    /**
+     * Compares lookups with the solver at the start, middle and end of every level
+     * in the table.
+     */
+    private boolean verify() {
+        for(int i = 1; i <= LEVELS; i++) {
+            if(!(xp[i] > xp[i - 1])) {
+                Adapt.warn("XP curve isn't increasing at level " + i + ", levels will be solved without a table");
+                return false;
+            }
+        }
+
+        double worst = 0;
+
+        for(int i = 0; i < LEVELS; i++) {
+            for(double f : new double[] {0.001, 0.5, 0.999}) {
+                double x = xp[i] + (xp[i + 1] - xp[i]) * f;
+                worst = Math.max(worst, Math.abs(interpolate(x) - curve.computeLevelForXP(x, MAX_ERROR)));
+            }
+        }
+
+        if(worst > MAX_ERROR) {
+            Adapt.warn("XP curve table is off by up to " + worst + " levels, levels will be solved without a table");
+            return false;
+        }
+
+        return true;
+    }
+}
@@ -50,6 +50,7 @@ public enum Curves {
 
     @Getter
     private final NewtonCurve curve;
+    private volatile CurveTable table;
 
     private static NewtonCurve resolved(NewtonCurve c, NewtonCurve inverse) {
         return new ResolvedNewtonCurve() {
@@ -68,4 +69,18 @@ public enum Curves {
     Curves(NewtonCurve curve) {
         this.curve = curve;
     }
+
+    /**
+     * Inverts the curve through a {@link CurveTable}, built the first time it's needed.
+     */
+    public double getLevelForXp(double xp) {
+        CurveTable t = table;
+
+        if(t == null) {
+            t = new CurveTable(curve);
+            table = t;
+        }
+
+        return t.getLevelForXp(xp);
+    }
 }
@@ -20,16 +20,21 @@ package com.volmit.adapt.api.xp;
 
 import com.volmit.adapt.api.skill.Skill;
 import com.volmit.adapt.util.M;
-import lombok.Data;
+import lombok.Getter;
 import org.bukkit.Location;
 
-@Data
+/**
+ * A pool of xp left at a location for nearby players to collect. Tickets are
+ * compared by identity since their xp changes while they sit in the index.
+ */
+@Getter
 public class SpatialXP {
     private Location location;
     private double radius;
     private Skill skill;
     private double xp;
     private long ms;
+    private volatile boolean spent;
 
     public SpatialXP(Location l, Skill s, double xp, double radius, long duration) {
         this.location = l;
@@ -38,4 +43,30 @@ public class SpatialXP {
         this.ms = M.ms() + duration;
         this.radius = radius;
     }
+
+    /**
+     * Takes a share of the remaining xp for a player standing at the given fraction
+     * of the radius (0 at the center). Once less than 10 xp remains the rest goes to
+     * that player and the ticket is spent.
+     */
+    public synchronized double take(double distance) {
+        if(spent) {
+            return 0;
+        }
+
+        double share = xp / (1.5D * ((distance * 9) + 1));
+        xp -= share;
+
+        if(xp < 10) {
+            share += xp;
+            xp = 0;
+            spent = true;
+        }
+
+        return share;
+    }
+
+    public boolean isExpired() {
+        return spent || M.ms() > ms;
+    }
 }
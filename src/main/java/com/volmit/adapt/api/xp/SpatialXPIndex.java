@@ -0,0 +1,200 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.xp;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.tick.TickedObject;
+import com.volmit.adapt.api.world.AdaptPlayer;
+import com.volmit.adapt.util.M;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live spatial xp tickets, hashed by world and chunk. Every tick each online player
+ * collects from the tickets in reach by looking only at the chunks around them, and
+ * expired tickets are dropped from the front of a queue ordered by expiry time.
+ * How far to look is the largest radius still live in the world, tracked as a count
+ * of tickets per radius so it shrinks again once big tickets are gone.
+ */
+public class SpatialXPIndex extends TickedObject {
+    private final Map<UUID, Map<Long, Set<SpatialXP>>> worlds;
+    private final Map<UUID, NavigableMap<Double, Integer>> radii;
+    private final PriorityBlockingQueue<SpatialXP> expiry;
+    private final AtomicInteger size;
+
+    public SpatialXPIndex() {
+        super("xp", "spatial", 50);
+        worlds = new ConcurrentHashMap<>();
+        radii = new ConcurrentHashMap<>();
+        expiry = new PriorityBlockingQueue<>(64, Comparator.comparingLong(SpatialXP::getMs));
+        size = new AtomicInteger(0);
+    }
+
+    public void offer(SpatialXP x) {
+        World w = x.getLocation().getWorld();
+
+        if(w == null) {
+            return;
+        }
+
+        // Counted before it can be found, so a player spending it right away can't
+        // uncount it first
+        radii.computeIfAbsent(w.getUID(), k -> new ConcurrentSkipListMap<>()).merge(x.getRadius(), 1, Integer::sum);
+        worlds.computeIfAbsent(w.getUID(), k -> new ConcurrentHashMap<>()).compute(key(x.getLocation()), (k, s) -> {
+            if(s == null) {
+                s = ConcurrentHashMap.newKeySet();
+            }
+
+            s.add(x);
+            return s;
+        });
+        expiry.add(x);
+        size.incrementAndGet();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    @Override
+    public void onTick() {
+        expire();
+
+        if(size.get() == 0) {
+            return;
+        }
+
+        List<AdaptPlayer> players = Adapt.instance.getAdaptServer().getAdaptPlayers();
+        Collections.shuffle(players);
+
+        for(AdaptPlayer i : players) {
+            try {
+                distribute(i);
+            } catch(Throwable e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void distribute(AdaptPlayer p) {
+        Location at = p.getPlayer().getLocation();
+        UUID world = at.getWorld().getUID();
+        Map<Long, Set<SpatialXP>> cells = worlds.get(world);
+
+        if(cells == null || cells.isEmpty()) {
+            return;
+        }
+
+        int r = (int) Math.ceil(getReach(world) / 16D);
+        int cx = at.getBlockX() >> 4;
+        int cz = at.getBlockZ() >> 4;
+
+        for(int x = cx - r; x <= cx + r; x++) {
+            for(int z = cz - r; z <= cz + r; z++) {
+                Set<SpatialXP> cell = cells.get(key(x, z));
+
+                if(cell == null) {
+                    continue;
+                }
+
+                for(SpatialXP i : cell) {
+                    double d = at.distanceSquared(i.getLocation());
+                    double r2 = i.getRadius() * i.getRadius();
+
+                    if(d >= r2 || i.isExpired()) {
+                        continue;
+                    }
+
+                    double xp = i.take(M.lerpInverse(0, r2, d));
+
+                    if(i.isSpent()) {
+                        remove(i);
+                    }
+
+                    if(xp > 0) {
+                        XP.xp(p, i.getSkill(), xp);
+                    }
+                }
+            }
+        }
+    }
+
+    private void expire() {
+        SpatialXP x;
+
+        while((x = expiry.peek()) != null && x.isExpired()) {
+            x = expiry.poll();
+
+            if(x == null) {
+                return;
+            }
+
+            if(!x.isExpired()) {
+                expiry.add(x);
+                return;
+            }
+
+            remove(x);
+        }
+    }
+
+    private double getReach(UUID world) {
+        NavigableMap<Double, Integer> r = radii.get(world);
+        Map.Entry<Double, Integer> max = r == null ? null : r.lastEntry();
+        return max == null ? 0 : max.getKey();
+    }
+
+    private void remove(SpatialXP x) {
+        UUID world = x.getLocation().getWorld().getUID();
+        Map<Long, Set<SpatialXP>> cells = worlds.get(world);
+
+        if(cells == null) {
+            return;
+        }
+
+        cells.computeIfPresent(key(x.getLocation()), (k, s) -> {
+            if(s.remove(x)) {
+                size.decrementAndGet();
+                radii.get(world).computeIfPresent(x.getRadius(), (r, c) -> c > 1 ? c - 1 : null);
+            }
+
+            return s.isEmpty() ? null : s;
+        });
+    }
+
+    private static long key(Location l) {
+        return key(l.getBlockX() >> 4, l.getBlockZ() >> 4);
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+}
@@ -53,6 +53,7 @@ public class XP {
 
     public static void wisdom(AdaptPlayer p, long k) {
         p.getData().setWisdom(p.getData().getWisdom() + k);
+        p.getData().markDirty();
     }
 
     public static void knowledge(Player p, Skill skill, long k) {
@@ -88,6 +89,6 @@ public class XP {
     }
 
     public static double getLevelForXp(double xp) {
-        return AdaptConfig.get().getXpCurve().getCurve().computeLevelForXP(xp, 0.000001);
+        return AdaptConfig.get().getXpCurve().getLevelForXp(xp);
     }
 }
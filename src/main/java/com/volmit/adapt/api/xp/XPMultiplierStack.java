@@ -0,0 +1,99 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.xp;
+
+import com.volmit.adapt.util.M;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Active xp multipliers kept in a min-heap on expiry time next to their running sum.
+ * Expiring pops only the multipliers that actually ran out and reading the total
+ * never walks the stack.
+ */
+public class XPMultiplierStack implements Iterable<XPMultiplier> {
+    private final PriorityQueue<XPMultiplier> heap;
+    private double total;
+
+    public XPMultiplierStack() {
+        heap = new PriorityQueue<>(Comparator.comparingLong(XPMultiplier::getGoodFor));
+        total = 0;
+    }
+
+    public XPMultiplierStack(Collection<XPMultiplier> multipliers) {
+        this();
+
+        for(XPMultiplier i : multipliers) {
+            add(i);
+        }
+    }
+
+    public synchronized void add(XPMultiplier m) {
+        heap.add(m);
+        total += m.getMultiplier();
+    }
+
+    /**
+     * Drops every multiplier that has run out and returns the sum of the rest.
+     */
+    public synchronized double expire() {
+        long now = M.ms();
+
+        while(!heap.isEmpty() && now > heap.peek().getGoodFor()) {
+            total -= heap.poll().getMultiplier();
+        }
+
+        if(heap.isEmpty()) {
+            total = 0;
+        }
+
+        return total;
+    }
+
+    public synchronized double getTotal() {
+        return total;
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
+    /**
+     * Copies the multipliers, soonest to expire first, for saving or display.
+     */
+    public synchronized List<XPMultiplier> toList() {
+        List<XPMultiplier> l = new ArrayList<>(heap);
+        l.sort(heap.comparator());
+        return l;
+    }
+
+    @Override
+    public Iterator<XPMultiplier> iterator() {
+        return toList().iterator();
+    }
+}
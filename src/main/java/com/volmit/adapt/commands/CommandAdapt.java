@@ -29,6 +29,16 @@ public class CommandAdapt extends MortarCommand {
     private CommandItem item = new CommandItem();
     @Command
     private CommandTest test = new CommandTest();
+    @Command
+    private CommandProfile profile = new CommandProfile();
+    @Command
+    private CommandExport export = new CommandExport();
+    @Command
+    private CommandMigrate migrate = new CommandMigrate();
+    @Command
+    private CommandBenchmark benchmark = new CommandBenchmark();
+    @Command
+    private CommandTop top = new CommandTop();
     public CommandAdapt() {
         super("adapt", "ada", "a");
     }
@@ -0,0 +1,87 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.commands;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.data.PlayerDataCodec;
+import com.volmit.adapt.api.data.SegmentedPlayerStore;
+import com.volmit.adapt.api.world.AdaptPlayer;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.util.C;
+import com.volmit.adapt.util.Form;
+import com.volmit.adapt.util.MortarCommand;
+import com.volmit.adapt.util.MortarSender;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.List;
+
+public class CommandBenchmark extends MortarCommand {
+    public CommandBenchmark() {
+        super("benchmark", "bench");
+        setDescription("Compare bytes written by full and segmented saves for the next save cycle.");
+    }
+
+    @Override
+    public boolean handle(MortarSender sender, String[] args) {
+        long full = 0;
+        long segmented = 0;
+        int players = 0;
+        int dirty = 0;
+
+        for(Player i : Bukkit.getOnlinePlayers()) {
+            AdaptPlayer p = Adapt.instance.getAdaptServer().getPlayer(i);
+
+            if(p == null) {
+                continue;
+            }
+
+            PlayerData data = p.getData();
+
+            try {
+                full += PlayerDataCodec.encode(data).length;
+                segmented += SegmentedPlayerStore.measureDelta(data);
+                players++;
+                dirty += data.isDirty() ? 1 : 0;
+            } catch(Throwable e) {
+                sender.sendMessage("Failed to measure " + i.getName() + ": " + e.getMessage());
+            }
+        }
+
+        if(players == 0) {
+            sender.sendMessage("No players online to measure");
+            return true;
+        }
+
+        sender.sendMessage(C.GRAY + "Next save cycle for " + C.WHITE + players + C.GRAY + " players (" + C.WHITE + dirty + C.GRAY + " changed)");
+        sender.sendMessage(C.GRAY + "Full saves " + C.WHITE + Form.memSize(full, 1) + C.GRAY + ", " + C.WHITE + Form.memSize(full / players, 1) + C.GRAY + " per player");
+        sender.sendMessage(C.GRAY + "Segmented saves " + C.WHITE + Form.memSize(segmented, 1) + C.GRAY + ", " + C.WHITE + Form.memSize(segmented / players, 1) + C.GRAY + " per player, "
+            + C.WHITE + Form.pc((double) segmented / full, 1) + C.GRAY + " of full");
+        return true;
+    }
+
+    @Override
+    public void addTabOptions(MortarSender sender, String[] args, List<String> list) {
+
+    }
+
+    @Override
+    protected String getArgsUsage() {
+        return "";
+    }
+}
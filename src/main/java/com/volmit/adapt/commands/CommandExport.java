@@ -0,0 +1,78 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.commands;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.MortarCommand;
+import com.volmit.adapt.util.MortarSender;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
+public class CommandExport extends MortarCommand {
+    public CommandExport() {
+        super("export", "exp");
+        setDescription("Export a player's saved data as json for debugging.");
+    }
+
+    @Override
+    public boolean handle(MortarSender sender, String[] args) {
+        if(args.length < 1) {
+            printHelp(sender);
+            return true;
+        }
+
+        Player online = Bukkit.getPlayer(args[0]);
+        UUID id = online != null ? online.getUniqueId() : J.attempt(() -> UUID.fromString(args[0]), null);
+
+        if(id == null) {
+            sender.sendMessage("Unknown player " + args[0] + ", use their uuid if they are offline");
+            return true;
+        }
+
+        J.a(() -> {
+            try {
+                File f = Adapt.instance.getPlayerPersistence().export(id);
+                sender.sendMessage("Exported " + args[0] + " to " + f.getPath());
+            } catch(Throwable e) {
+                e.printStackTrace();
+                sender.sendMessage("Failed to export " + args[0] + ": " + e.getMessage());
+            }
+        });
+
+        return true;
+    }
+
+    @Override
+    public void addTabOptions(MortarSender sender, String[] args, List<String> list) {
+        if(args.length < 2) {
+            for(Player i : Bukkit.getOnlinePlayers()) {
+                list.add(i.getName());
+            }
+        }
+    }
+
+    @Override
+    protected String getArgsUsage() {
+        return "<player|uuid>";
+    }
+}
@@ -0,0 +1,79 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.commands;
+
+import com.volmit.adapt.AdaptConfig;
+import com.volmit.adapt.api.data.FilePlayerStore;
+import com.volmit.adapt.util.Form;
+import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
+import com.volmit.adapt.util.MortarCommand;
+import com.volmit.adapt.util.MortarSender;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CommandMigrate extends MortarCommand {
+    private static final AtomicBoolean running = new AtomicBoolean();
+
+    public CommandMigrate() {
+        super("migrate", "mig");
+        setDescription("Move player files from the flat layout into sharded folders.");
+    }
+
+    @Override
+    public boolean handle(MortarSender sender, String[] args) {
+        if(!AdaptConfig.get().isShardedPlayerFiles()) {
+            sender.sendMessage("Sharded player files are disabled in the config, nothing to migrate to");
+            return true;
+        }
+
+        int threads = args.length > 0 ? J.attemptResult(() -> Integer.parseInt(args[0]), 4) : 4;
+
+        if(!running.compareAndSet(false, true)) {
+            sender.sendMessage("A migration is already running");
+            return true;
+        }
+
+        sender.sendMessage("Migrating player files with " + threads + " threads");
+        J.a(() -> {
+            try {
+                long ms = M.ms();
+                int moved = FilePlayerStore.migrate(threads, p -> sender.sendMessage("Migrating player files " + Form.pc(Math.min(1, p), 0)));
+                sender.sendMessage("Migrated " + Form.f(moved) + " player files in " + Form.duration(M.ms() - ms, 1));
+            } catch(Throwable e) {
+                e.printStackTrace();
+                sender.sendMessage("Migration failed: " + e.getMessage() + ", run it again to continue");
+            } finally {
+                running.set(false);
+            }
+        });
+
+        return true;
+    }
+
+    @Override
+    public void addTabOptions(MortarSender sender, String[] args, List<String> list) {
+
+    }
+
+    @Override
+    protected String getArgsUsage() {
+        return "[threads]";
+    }
+}
@@ -0,0 +1,119 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.commands;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.data.PlayerPersistence;
+import com.volmit.adapt.api.data.WorldData;
+import com.volmit.adapt.api.tick.TickProfiler;
+import com.volmit.adapt.api.tick.Ticker;
+import com.volmit.adapt.util.C;
+import com.volmit.adapt.util.Form;
+import com.volmit.adapt.util.IO;
+import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
+import com.volmit.adapt.util.MortarCommand;
+import com.volmit.adapt.util.MortarSender;
+
+import java.io.File;
+import java.util.List;
+
+public class CommandProfile extends MortarCommand {
+    public CommandProfile() {
+        super("profile", "prof");
+        setDescription("Show the heaviest ticked objects. Use dump to write all of them to a file or reset to start over.");
+    }
+
+    @Override
+    public boolean handle(MortarSender sender, String[] args) {
+        Ticker ticker = Adapt.instance.getTicker();
+        TickProfiler profiler = ticker.getProfiler();
+
+        if(args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            profiler.reset();
+            sender.sendMessage("Profiler reset");
+            return true;
+        }
+
+        if(args.length > 0 && args[0].equalsIgnoreCase("dump")) {
+            File f = Adapt.instance.getDataFile("profiler", "profile-" + M.ms() + ".txt");
+            List<TickProfiler.Profile> top = profiler.getTop(Integer.MAX_VALUE);
+            J.a(() -> {
+                StringBuilder sb = new StringBuilder();
+                sb.append("key\tcalls/s\tp50 ms\tp99 ms\tmax ms\tload ms/s\n");
+
+                for(TickProfiler.Profile i : top) {
+                    sb.append(i.getKey()).append("\t")
+                        .append(Form.f(i.getCallsPerSecond(), 2)).append("\t")
+                        .append(Form.nsMs(i.getP50(), 4)).append("\t")
+                        .append(Form.nsMs(i.getP99(), 4)).append("\t")
+                        .append(Form.nsMs(i.getMax(), 4)).append("\t")
+                        .append(Form.nsMs((long) i.getLoad(), 4)).append("\n");
+                }
+
+                J.attempt(() -> IO.writeAll(f, sb.toString()));
+                sender.sendMessage("Dumped " + top.size() + " profiles to " + f.getPath());
+            });
+            return true;
+        }
+
+        int count = args.length > 0 ? J.attempt(() -> Integer.parseInt(args[0]), 10) : 10;
+        sender.sendMessage(C.GRAY + "Ticked " + C.WHITE + Form.f((int) ticker.getAverageDispatchedCount()) + C.GRAY + " of " + C.WHITE + Form.f(ticker.getRegisteredCount())
+            + C.GRAY + " objects per tick, profiled for " + Form.duration(M.ms() - profiler.getSince(), 0));
+        sender.sendMessage(C.GRAY + "Tick load " + C.WHITE + Form.f(ticker.getAverageLoad(), 2) + "ms" + C.GRAY + ", low priority intervals stretched " + C.WHITE + Form.f(ticker.getStretch(), 2) + "x");
+        PlayerPersistence persistence = Adapt.instance.getPlayerPersistence();
+        sender.sendMessage(C.GRAY + "Player store " + C.WHITE + persistence.getStore().getName() + C.GRAY + ", " + C.WHITE + Form.f(persistence.getWritten().get()) + C.GRAY + " saves, " + C.WHITE + Form.memSize(persistence.getBytesWritten().get(), 1) + C.GRAY + " written, "
+            + C.WHITE + Form.memSize(persistence.getBytesWritten().get() / Math.max(1, persistence.getWritten().get()), 1) + C.GRAY + " per save");
+        long hits = persistence.getCacheHits().get();
+        long lookups = hits + persistence.getCacheMisses().get();
+        sender.sendMessage(C.GRAY + "Offline player cache " + C.WHITE + Form.f(persistence.getCacheSize()) + C.GRAY + " players, " + C.WHITE + Form.f(persistence.getCacheWeight()) + "KB" + C.GRAY
+            + ", hit rate " + C.WHITE + Form.pc(lookups == 0 ? 0 : (double) hits / lookups, 1) + C.GRAY + " of " + Form.f(lookups));
+        sender.sendMessage(C.GRAY + "Join " + C.WHITE + Form.f(Adapt.instance.getAdaptServer().getJoinLatency().getAverage(), 2) + "ms" + C.GRAY + " average, "
+            + C.WHITE + Form.f(persistence.getPrefetchHits().get()) + C.GRAY + " prefetched, " + C.WHITE + Form.f(persistence.getPrefetchMisses().get()) + C.GRAY + " loaded on join");
+        sender.sendMessage(C.GRAY + "Mantles " + C.WHITE + Form.f(WorldData.getLoadedWorlds()) + C.GRAY + " worlds, " + C.WHITE + Form.f(WorldData.getTotalResidentRegions()) + C.GRAY + " regions resident, "
+            + C.WHITE + Form.f(WorldData.getTotalHeatSections()) + C.GRAY + " earnings sections");
+        long mantleHits = WorldData.getPrefetchHits().get();
+        long mantleLookups = mantleHits + WorldData.getPrefetchMisses().get();
+        sender.sendMessage(C.GRAY + "Mantle prefetch hit rate " + C.WHITE + Form.pc(mantleLookups == 0 ? 0 : (double) mantleHits / mantleLookups, 1) + C.GRAY + " of " + Form.f(mantleLookups) + " lookups");
+        sender.sendMessage(C.GRAY + "Active adaptation subscriptions " + C.WHITE + Form.f(Adapt.instance.getAdaptServer().getAdaptationSubscriptions().getSubscriptionCount()));
+
+        for(TickProfiler.Profile i : profiler.getTop(count)) {
+            sender.sendMessage(C.WHITE + i.getKey() + C.GRAY
+                + " " + Form.f(i.getCallsPerSecond(), 1) + "/s"
+                + " p50 " + C.WHITE + Form.nsMs(i.getP50(), 2) + "ms" + C.GRAY
+                + " p99 " + C.WHITE + Form.nsMs(i.getP99(), 2) + "ms" + C.GRAY
+                + " max " + C.WHITE + Form.nsMs(i.getMax(), 2) + "ms");
+        }
+
+        return true;
+    }
+
+    @Override
+    public void addTabOptions(MortarSender sender, String[] args, List<String> list) {
+        if(args.length < 2) {
+            list.add("dump");
+            list.add("reset");
+        }
+    }
+
+    @Override
+    protected String getArgsUsage() {
+        return "[count|dump|reset]";
+    }
+}
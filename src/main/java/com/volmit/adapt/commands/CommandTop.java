@@ -0,0 +1,109 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+package com.volmit.adapt.commands;
+
+import com.volmit.adapt.Adapt;
+import com.volmit.adapt.api.skill.Skill;
+import com.volmit.adapt.api.world.Leaderboards;
+import com.volmit.adapt.api.xp.XP;
+import com.volmit.adapt.util.C;
+import com.volmit.adapt.util.Form;
+import com.volmit.adapt.util.J;
+import com.volmit.adapt.util.M;
+import com.volmit.adapt.util.MortarCommand;
+import com.volmit.adapt.util.MortarSender;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CommandTop extends MortarCommand {
+    private static final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    public CommandTop() {
+        super("top", "leaderboard", "lb");
+        setDescription("Show the top players of a skill or by master level, or rebuild the leaderboards.");
+    }
+
+    @Override
+    public boolean handle(MortarSender sender, String[] args) {
+        Leaderboards leaderboards = Adapt.instance.getAdaptServer().getLeaderboards();
+        String board = args.length > 0 ? args[0].toLowerCase() : Leaderboards.MASTER;
+
+        if(board.equals("rebuild")) {
+            rebuild(sender, leaderboards);
+            return true;
+        }
+
+        int limit = args.length > 1 ? J.attemptResult(() -> Integer.parseInt(args[1]), 10) : 10;
+        List<Leaderboards.Entry> top = leaderboards.getTop(board, limit);
+
+        if(top.isEmpty()) {
+            sender.sendMessage("Nobody is ranked in " + board);
+            return true;
+        }
+
+        Skill<?> skill = Adapt.instance.getAdaptServer().getSkillRegistry().getSkill(board);
+        sender.sendMessage(C.GRAY + "Top " + top.size() + " in " + C.WHITE + (skill == null ? "Master Level" : skill.getDisplayName()));
+
+        for(int i = 0; i < top.size(); i++) {
+            Leaderboards.Entry e = top.get(i);
+            sender.sendMessage(C.GRAY + "#" + (i + 1) + " " + C.WHITE + (e.getName() == null ? e.getId().toString() : e.getName())
+                + C.GRAY + " level " + C.WHITE + (int) XP.getLevelForXp(e.getXp()) + C.GRAY + " (" + Form.f((long) e.getXp()) + " xp)");
+        }
+
+        return true;
+    }
+
+    private void rebuild(MortarSender sender, Leaderboards leaderboards) {
+        if(!rebuilding.compareAndSet(false, true)) {
+            sender.sendMessage("Leaderboards are already rebuilding");
+            return;
+        }
+
+        sender.sendMessage("Rebuilding leaderboards from every stored player");
+        J.a(() -> {
+            try {
+                long ms = M.ms();
+                int players = leaderboards.rebuild(4, p -> sender.sendMessage("Rebuilding leaderboards " + Form.pc(Math.min(1, p), 0)));
+                sender.sendMessage("Ranked " + Form.f(players) + " players in " + Form.duration(M.ms() - ms, 1));
+            } catch(Throwable e) {
+                e.printStackTrace();
+                sender.sendMessage("Failed to rebuild leaderboards: " + e.getMessage());
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    @Override
+    public void addTabOptions(MortarSender sender, String[] args, List<String> list) {
+        if(args.length < 2) {
+            list.add(Leaderboards.MASTER);
+            list.add("rebuild");
+
+            for(Skill<?> i : Adapt.instance.getAdaptServer().getSkillRegistry().getSkills()) {
+                list.add(i.getName());
+            }
+        }
+    }
+
+    @Override
+    protected String getArgsUsage() {
+        return "[skill|master|rebuild] [count]";
+    }
+}
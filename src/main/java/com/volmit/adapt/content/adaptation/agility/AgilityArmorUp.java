@@ -20,12 +20,12 @@ package com.volmit.adapt.content.adaptation.agility;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.Form;
 import com.volmit.adapt.util.M;
 import lombok.NoArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.attribute.Attribute;
@@ -34,6 +34,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.player.PlayerQuitEvent;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,6 +51,7 @@ public class AgilityArmorUp extends SimpleAdaptation<AgilityArmorUp.Config> {
         setCostFactor(getConfig().costFactor);
         setInitialCost(getConfig().initialCost);
         setInterval(55);
+        setLane(TickLane.MAIN_THREAD);
     }
 
     @Override
@@ -72,50 +74,41 @@ public class AgilityArmorUp extends SimpleAdaptation<AgilityArmorUp.Config> {
     }
 
     @Override
-    public void onTick() {
-        for (Player i : Bukkit.getOnlinePlayers()) {
-            for (AttributeModifier j : i.getAttribute(Attribute.GENERIC_ARMOR).getModifiers()) {
-                if (j.getName().equals("adapt-armor-up")) {
-                    i.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(j);
-                }
-            }
-
-            if (i.isSwimming() || i.isFlying() || i.isGliding() || i.isSneaking()) {
-                ticksRunning.remove(i);
-                return;
-            }
+    public void onPlayerTick(Player i) {
+        removeModifier(i);
 
-            if (i.isSprinting() && getLevel(i) > 0) {
-                ticksRunning.compute(i, (k, v) -> {
-                    if (v == null) {
-                        return 1;
-                    }
-
-                    return v + 1;
-                });
+        if (!i.isSprinting() || i.isSwimming() || i.isFlying() || i.isGliding() || i.isSneaking()) {
+            ticksRunning.remove(i);
+            return;
+        }
 
-                Integer tr = ticksRunning.get(i);
+        int tr = ticksRunning.compute(i, (k, v) -> v == null ? 1 : v + 1);
+        double factor = getLevelPercent(i);
+        double ticksToMax = getWindupTicks(factor);
+        double progress = Math.min(M.lerpInverse(0, ticksToMax, tr), 1);
+        double armorInc = M.lerp(0, getWindupArmor(factor), progress);
 
-                if (tr == null || tr <= 0) {
-                    continue;
-                }
+        if (M.r(0.2 * progress)) {
+            i.getWorld().spawnParticle(Particle.END_ROD, i.getLocation(), 1);
+        }
 
-                double factor = getLevelPercent(i);
-                double ticksToMax = getWindupTicks(factor);
-                double progress = Math.min(M.lerpInverse(0, ticksToMax, tr), 1);
-                double armorInc = M.lerp(0, getWindupArmor(factor), progress);
+        if (M.r(0.25 * progress)) {
+            i.getWorld().spawnParticle(Particle.WAX_ON, i.getLocation(), 1, 0, 0, 0, 0);
+        }
 
-                if (M.r(0.2 * progress)) {
-                    i.getWorld().spawnParticle(Particle.END_ROD, i.getLocation(), 1);
-                }
+        i.getAttribute(Attribute.GENERIC_ARMOR).addModifier(new AttributeModifier("adapt-armor-up", armorInc, AttributeModifier.Operation.MULTIPLY_SCALAR_1));
+    }
 
-                if (M.r(0.25 * progress)) {
-                    i.getWorld().spawnParticle(Particle.WAX_ON, i.getLocation(), 1, 0, 0, 0, 0);
-                }
+    @Override
+    public void onDeactivate(Player i) {
+        removeModifier(i);
+        ticksRunning.remove(i);
+    }
 
-                i.getAttribute(Attribute.GENERIC_ARMOR).addModifier(new AttributeModifier("adapt-armor-up", armorInc, AttributeModifier.Operation.MULTIPLY_SCALAR_1));
-            } else {
-                ticksRunning.remove(i);
+    private void removeModifier(Player i) {
+        for (AttributeModifier j : new ArrayList<>(i.getAttribute(Attribute.GENERIC_ARMOR).getModifiers())) {
+            if (j.getName().equals("adapt-armor-up")) {
+                i.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(j);
             }
         }
     }
@@ -20,11 +20,11 @@ package com.volmit.adapt.content.adaptation.agility;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.Form;
 import lombok.NoArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.Sound;
@@ -53,6 +53,7 @@ public class AgilityWallJump extends SimpleAdaptation<AgilityWallJump.Config> {
         setMaxLevel(getConfig().maxLevel);
         setInitialCost(getConfig().initialCost);
         setInterval(50);
+        setLane(TickLane.MAIN_THREAD);
     }
 
     @Override
@@ -84,63 +85,63 @@ public class AgilityWallJump extends SimpleAdaptation<AgilityWallJump.Config> {
     }
 
     @Override
-    public void onTick() {
-        for (Player i : Bukkit.getOnlinePlayers()) {
-            int level = getLevel(i);
-            if (level <= 0) {
-                continue;
-            }
-
-            Double j = airjumps.get(i);
-
-            if (j != null && j - 0.25 >= getMaxJumps(level)) {
-                i.setGravity(true);
-                continue;
-            }
+    public void onPlayerTick(Player i) {
+        int level = getLevel(i);
+        Double j = airjumps.get(i);
 
-            if (i.isFlying() || !i.isSneaking() || i.getFallDistance() < 0.3) {
-                boolean jumped = false;
+        if (j != null && j - 0.25 >= getMaxJumps(level)) {
+            i.setGravity(true);
+            return;
+        }
 
-                if (!i.hasGravity() && i.getFallDistance() > 0.45 && canStick(i)) {
-                    j = j == null ? 0 : j;
-                    j++;
+        if (i.isFlying() || !i.isSneaking() || i.getFallDistance() < 0.3) {
+            boolean jumped = false;
 
-                    if (j - 0.25 <= getMaxJumps(level)) {
-                        jumped = true;
-                        i.setVelocity(i.getVelocity().setY(getJumpHeight(level)));
-                        i.getWorld().spawnParticle(Particle.BLOCK_CRACK, i.getLocation().clone().add(0, 0.3, 0), 15, 0.1, 0.8, 0.1, 0.1, getStick(i).getBlockData());
-                    }
-                    xp(i, 2);
-                    airjumps.put(i, j);
-                }
+            if (!i.hasGravity() && i.getFallDistance() > 0.45 && canStick(i)) {
+                j = j == null ? 0 : j;
+                j++;
 
-                if (!jumped && !i.hasGravity()) {
-                    i.setGravity(true);
-                    i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_LEATHER, 1f, 0.439f);
+                if (j - 0.25 <= getMaxJumps(level)) {
+                    jumped = true;
+                    i.setVelocity(i.getVelocity().setY(getJumpHeight(level)));
+                    i.getWorld().spawnParticle(Particle.BLOCK_CRACK, i.getLocation().clone().add(0, 0.3, 0), 15, 0.1, 0.8, 0.1, 0.1, getStick(i).getBlockData());
                 }
-                continue;
+                xp(i, 2);
+                airjumps.put(i, j);
             }
 
-            if (canStick(i)) {
-                if (i.hasGravity()) {
-                    i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_LEATHER, 1f, 0.89f);
-                    i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_CHAIN, 1f, 1.39f);
-                    i.getWorld().spawnParticle(Particle.BLOCK_CRACK, i.getLocation().clone().add(0, 0.3, 0), 15, 0.1, 0.2, 0.1, 0.1, getStick(i).getBlockData());
-                }
-
-                i.setGravity(false);
-                Vector c = i.getVelocity();
-                i.setVelocity(i.getVelocity().setY((c.getY() * 0.35) - 0.0025));
-                Double vv = airjumps.get(i);
-                vv = vv == null ? 0 : vv;
-                vv += 0.0127;
-                airjumps.put(i, vv);
+            if (!jumped && !i.hasGravity()) {
+                i.setGravity(true);
+                i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_LEATHER, 1f, 0.439f);
             }
+            return;
+        }
 
-            if (!canStick(i) && !i.hasGravity()) {
-                i.setGravity(true);
+        if (canStick(i)) {
+            if (i.hasGravity()) {
+                i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_LEATHER, 1f, 0.89f);
+                i.getLocation().getWorld().playSound(i.getLocation(), Sound.ITEM_ARMOR_EQUIP_CHAIN, 1f, 1.39f);
+                i.getWorld().spawnParticle(Particle.BLOCK_CRACK, i.getLocation().clone().add(0, 0.3, 0), 15, 0.1, 0.2, 0.1, 0.1, getStick(i).getBlockData());
             }
+
+            i.setGravity(false);
+            Vector c = i.getVelocity();
+            i.setVelocity(i.getVelocity().setY((c.getY() * 0.35) - 0.0025));
+            Double vv = airjumps.get(i);
+            vv = vv == null ? 0 : vv;
+            vv += 0.0127;
+            airjumps.put(i, vv);
         }
+
+        if (!canStick(i) && !i.hasGravity()) {
+            i.setGravity(true);
+        }
+    }
+
+    @Override
+    public void onDeactivate(Player i) {
+        airjumps.remove(i);
+        i.setGravity(true);
     }
 
     private boolean canStick(Player p) {
@@ -83,9 +83,9 @@ public class ArchitectFoundation extends SimpleAdaptation<ArchitectFoundation.Co
             return;
         }
 
-        int power = blockPower.get(e.getPlayer());
+        Integer power = blockPower.get(e.getPlayer());
 
-        if (power <= 0) {
+        if (power == null || power <= 0) {
             return;
         }
 
@@ -169,27 +169,22 @@ public class ArchitectFoundation extends SimpleAdaptation<ArchitectFoundation.Co
     }
 
     @Override
-    public void onTick() {
-        for (Player i : Bukkit.getOnlinePlayers()) {
-            if (!hasAdaptation(i)) {
-                continue;
+    public void onPlayerTick(Player i) {
+        boolean ready = !hasCooldown(i);
+        int availablePower = getBlockPower(getLevelPercent(i));
+        blockPower.compute(i, (k, v) -> {
+            if ((k == null || v == null) || (ready && v != availablePower)) {
+                i.getWorld().playSound(i.getLocation(), Sound.BLOCK_BEACON_ACTIVATE, 100.0f, 10.0f);
+                i.getWorld().playSound(i.getLocation(), Sound.BLOCK_RESPAWN_ANCHOR_CHARGE, 100.0f, 0.81f);
+                return availablePower;
             }
+            return v;
+        });
+    }
 
-            boolean ready = !hasCooldown(i);
-            int availablePower = getBlockPower(getLevelPercent(i));
-            blockPower.compute(i, (k, v) -> {
-                if ((k == null || v == null) || (ready && v != availablePower)) {
-                    if (i==null) {
-                        return 0;
-                    }
-
-                    i.getWorld().playSound(i.getLocation(), Sound.BLOCK_BEACON_ACTIVATE, 100.0f, 10.0f);
-                    i.getWorld().playSound(i.getLocation(), Sound.BLOCK_RESPAWN_ANCHOR_CHARGE, 100.0f, 0.81f);
-                    return availablePower;
-                }
-                return v;
-            });
-        }
+    @Override
+    public void onDeactivate(Player i) {
+        blockPower.remove(i);
     }
 
     private boolean hasCooldown(Player i) {
@@ -20,6 +20,7 @@ package com.volmit.adapt.content.adaptation.architect;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.world.Stat;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.J;
@@ -45,6 +46,9 @@ import java.util.List;
 import java.util.Map;
 
 public class ArchitectPlacement extends SimpleAdaptation<ArchitectPlacement.Config> {
+    private static final Stat BLOCKS_PLACED = Stat.of("blocks.placed");
+    private static final Stat BLOCKS_PLACED_VALUE = Stat.of("blocks.placed.value");
+
     public ArchitectPlacement() {
         super("architect-placement");
         registerConfiguration(ArchitectPlacement.Config.class);
@@ -101,8 +105,8 @@ public class ArchitectPlacement extends SimpleAdaptation<ArchitectPlacement.Conf
                         if (b.getWorld().getBlockAt(b.getRelative(face).getLocation()).getType() == Material.AIR) {
                             if (b.getRelative(face).getLocation() != e.getBlock().getLocation()) {
                                 b.getWorld().setBlockData(b.getRelative(face).getLocation(), b.getBlockData());
-                                getPlayer(e.getPlayer()).getData().addStat("blocks.placed", 1);
-                                getPlayer(e.getPlayer()).getData().addStat("blocks.placed.value", v);
+                                getPlayer(e.getPlayer()).getData().addStat(BLOCKS_PLACED, 1);
+                                getPlayer(e.getPlayer()).getData().addStat(BLOCKS_PLACED_VALUE, v);
                                 p.playSound(b.getLocation(), Sound.BLOCK_AZALEA_BREAK, 0.4f, 0.25f);
                                 xp(e.getPlayer(), 2);
                             }
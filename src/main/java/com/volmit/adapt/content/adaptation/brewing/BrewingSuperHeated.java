@@ -21,6 +21,7 @@ package com.volmit.adapt.content.adaptation.brewing;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
 import com.volmit.adapt.api.data.WorldData;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.api.world.PlayerData;
 import com.volmit.adapt.content.matter.BrewingStandOwner;
 import com.volmit.adapt.util.*;
@@ -56,6 +57,7 @@ public class BrewingSuperHeated extends SimpleAdaptation<BrewingSuperHeated.Conf
         setMaxLevel(getConfig().maxLevel);
         setInitialCost(getConfig().initialCost);
         setInterval(250);
+        setLane(TickLane.MAIN_THREAD);
     }
 
     @Override
@@ -97,42 +99,34 @@ public class BrewingSuperHeated extends SimpleAdaptation<BrewingSuperHeated.Conf
 
         Iterator<Block> it = activeStands.iterator();
 
-        J.s(() -> {
-            while (it.hasNext()) {
-                BlockState s = it.next().getState();
-
-                if (s instanceof BrewingStand b) {
-                    if (b.getBrewingTime() <= 0) {
-                        J.s(() -> {
-                            BrewingStand bb = (BrewingStand) s.getBlock().getState();
-
-                            if (bb.getBrewingTime() <= 0) {
-                                activeStands.remove(b.getBlock());
-                            }
-                        });
-                        continue;
-                    }
-
-                    BrewingStandOwner owner = WorldData.of(b.getWorld()).getMantle().get(b.getX(), b.getY(), b.getZ(), BrewingStandOwner.class);
-
-                    if (owner == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    PlayerData p = getServer().peekData(owner.getOwner());
-
-                    if (p.getSkillLines().get(getSkill().getName()) != null && p.getSkillLines().get(getSkill().getName()).getAdaptations().containsKey(getName())
-                            && p.getSkillLines().get(getSkill().getName()).getAdaptations().get(getName()).getLevel() > 0) {
-                        updateHeat(b, getLevelPercent(p.getSkillLines().get(getSkill().getName()).getAdaptations().get(getName()).getLevel()));
-                    } else {
-                        it.remove();
-                    }
+        while (it.hasNext()) {
+            BlockState s = it.next().getState();
+
+            if (s instanceof BrewingStand b) {
+                if (b.getBrewingTime() <= 0) {
+                    it.remove();
+                    continue;
+                }
+
+                BrewingStandOwner owner = WorldData.of(b.getWorld()).get(b.getX(), b.getY(), b.getZ(), BrewingStandOwner.class);
+
+                if (owner == null) {
+                    it.remove();
+                    continue;
+                }
+
+                PlayerData p = getServer().peekData(owner.getOwner());
+
+                if (p.getSkillLines().get(getSkill().getName()) != null && p.getSkillLines().get(getSkill().getName()).getAdaptations().containsKey(getName())
+                        && p.getSkillLines().get(getSkill().getName()).getAdaptations().get(getName()).getLevel() > 0) {
+                    updateHeat(b, getLevelPercent(p.getSkillLines().get(getSkill().getName()).getAdaptations().get(getName()).getLevel()));
                 } else {
                     it.remove();
                 }
+            } else {
+                it.remove();
             }
-        });
+        }
     }
 
     private void updateHeat(BrewingStand b, double factor) {
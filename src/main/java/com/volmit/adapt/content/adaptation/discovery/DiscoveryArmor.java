@@ -20,12 +20,12 @@ package com.volmit.adapt.content.adaptation.discovery;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.M;
 import com.volmit.adapt.util.VectorMath;
 import lombok.NoArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Particle;
@@ -46,6 +46,7 @@ public class DiscoveryArmor extends SimpleAdaptation<DiscoveryArmor.Config> {
         setDisplayName(Adapt.dLocalize("Discovery", "DiscoveryArmor", "Name"));
         setIcon(Material.TURTLE_HELMET);
         setInterval(1125);
+        setLane(TickLane.MAIN_THREAD);
         setBaseCost(getConfig().baseCost);
         setInitialCost(getConfig().initialCost);
         setCostFactor(getConfig().costFactor);
@@ -107,37 +108,33 @@ public class DiscoveryArmor extends SimpleAdaptation<DiscoveryArmor.Config> {
 
 
     @Override
-    public void onTick() {
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            if (!hasAdaptation(p)) {
-                Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
-                for (AttributeModifier i : new ArrayList<>(c)) {
-                    if (i.getName().equals("adapt-discovery-armor")) {
-                        p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
-                    }
-                }
-                continue;
-            }
-            double oldArmor = 0;
-            double armor = getArmor(p.getLocation(), getLevel(p));
-            armor = Double.isNaN(armor) ? 0 : armor;
-
-            Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
-            for (AttributeModifier i : new ArrayList<>(c)) {
-                if (i.getName().equals("adapt-discovery-armor")) {
-                    oldArmor = i.getAmount();
-                    oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
-                    p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
-                }
-
+    public void onPlayerTick(Player p) {
+        double oldArmor = 0;
+        double armor = getArmor(p.getLocation(), getLevel(p));
+        armor = Double.isNaN(armor) ? 0 : armor;
+
+        Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
+        for (AttributeModifier i : new ArrayList<>(c)) {
+            if (i.getName().equals("adapt-discovery-armor")) {
+                oldArmor = i.getAmount();
+                oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
+                p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
             }
-            double lArmor = M.lerp(oldArmor, armor, 0.3);
-            lArmor = Double.isNaN(lArmor) ? 0 : lArmor;
-            p.getAttribute(Attribute.GENERIC_ARMOR).addModifier(new AttributeModifier("adapt-discovery-armor", lArmor, AttributeModifier.Operation.ADD_NUMBER));
-
 
         }
+        double lArmor = M.lerp(oldArmor, armor, 0.3);
+        lArmor = Double.isNaN(lArmor) ? 0 : lArmor;
+        p.getAttribute(Attribute.GENERIC_ARMOR).addModifier(new AttributeModifier("adapt-discovery-armor", lArmor, AttributeModifier.Operation.ADD_NUMBER));
+    }
 
+    @Override
+    public void onDeactivate(Player p) {
+        Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
+        for (AttributeModifier i : new ArrayList<>(c)) {
+            if (i.getName().equals("adapt-discovery-armor")) {
+                p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
+            }
+        }
     }
 
     @Override
@@ -20,6 +20,7 @@ package com.volmit.adapt.content.adaptation.herbalism;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.*;
 import lombok.NoArgsConstructor;
 import org.bukkit.*;
@@ -44,6 +45,7 @@ public class HerbalismGrowthAura extends SimpleAdaptation<HerbalismGrowthAura.Co
         setBaseCost(getConfig().baseCost);
         setMaxLevel(getConfig().maxLevel);
         setInterval(850);
+        setLane(TickLane.MAIN_THREAD);
         setInitialCost(getConfig().initialCost);
         setCostFactor(getConfig().costFactor);
     }
@@ -70,50 +72,42 @@ public class HerbalismGrowthAura extends SimpleAdaptation<HerbalismGrowthAura.Co
 
 
     @Override
-    public void onTick() {
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            try {
-                if (getLevel(p) > 0) {
-                    double rad = getRadius(getLevelPercent(p));
-                    double strength = getStrength(getLevel(p));
-                    double angle = Math.toRadians(Math.random() * 360);
-                    double foodCost = getFoodCost(getLevelPercent(p));
-
-
-                    for (int i = 0; i < Math.min(Math.min(rad * rad, 256), 3); i++) {
-                        Location m = p.getLocation().clone().add(new Vector(Math.sin(angle), RNG.r.i(-1, 1), Math.cos(angle)).multiply(Math.random() * rad));
-                        Block a = m.getWorld().getHighestBlockAt(m).getRelative(BlockFace.UP);
-                        if (a.getBlockData() instanceof Ageable) {
-                            Ageable ab = (Ageable) a.getBlockData();
-                            int toGrowLeft = ab.getMaximumAge() - ab.getAge();
-
-                            if (toGrowLeft > 0) {
-                                int add = (int) Math.max(1, Math.min(strength, toGrowLeft));
-                                if (ab.getMaximumAge() > ab.getAge() && getPlayer(p).canConsumeFood(foodCost, 10)) {
-                                    while (add-- > 0) {
-                                        J.s(() -> {
-                                            if (getPlayer(p).consumeFood(foodCost, 10)) {
-                                                Ageable aab = (Ageable) a.getBlockData();
-
-                                                if (aab.getAge() < aab.getMaximumAge()) {
-                                                    aab.setAge(aab.getAge() + 1);
-                                                    a.setBlockData(aab, true);
-                                                    a.getWorld().playSound(a.getLocation(), Sound.BLOCK_CHORUS_FLOWER_DEATH, 0.25f, RNG.r.f(0.3f, 0.7f));
-                                                    p.spawnParticle(Particle.VILLAGER_HAPPY, a.getLocation().clone().add(0.5, 0.5, 0.5), 3, 0.3, 0.3, 0.3, 0.9);
-                                                    xp(p, 1);
-                                                }
-                                            }
-                                        }, RNG.r.i(30, 60));
+    public void onPlayerTick(Player p) {
+        double rad = getRadius(getLevelPercent(p));
+        double strength = getStrength(getLevel(p));
+        double angle = Math.toRadians(Math.random() * 360);
+        double foodCost = getFoodCost(getLevelPercent(p));
+
+
+        for (int i = 0; i < Math.min(Math.min(rad * rad, 256), 3); i++) {
+            Location m = p.getLocation().clone().add(new Vector(Math.sin(angle), RNG.r.i(-1, 1), Math.cos(angle)).multiply(Math.random() * rad));
+            Block a = m.getWorld().getHighestBlockAt(m).getRelative(BlockFace.UP);
+            if (a.getBlockData() instanceof Ageable) {
+                Ageable ab = (Ageable) a.getBlockData();
+                int toGrowLeft = ab.getMaximumAge() - ab.getAge();
+
+                if (toGrowLeft > 0) {
+                    int add = (int) Math.max(1, Math.min(strength, toGrowLeft));
+                    if (ab.getMaximumAge() > ab.getAge() && getPlayer(p).canConsumeFood(foodCost, 10)) {
+                        while (add-- > 0) {
+                            J.s(() -> {
+                                if (getPlayer(p).consumeFood(foodCost, 10)) {
+                                    Ageable aab = (Ageable) a.getBlockData();
+
+                                    if (aab.getAge() < aab.getMaximumAge()) {
+                                        aab.setAge(aab.getAge() + 1);
+                                        a.setBlockData(aab, true);
+                                        a.getWorld().playSound(a.getLocation(), Sound.BLOCK_CHORUS_FLOWER_DEATH, 0.25f, RNG.r.f(0.3f, 0.7f));
+                                        p.spawnParticle(Particle.VILLAGER_HAPPY, a.getLocation().clone().add(0.5, 0.5, 0.5), 3, 0.3, 0.3, 0.3, 0.9);
+                                        xp(p, 1);
                                     }
                                 }
-                            }
-
-
+                            }, RNG.r.i(30, 60));
                         }
                     }
                 }
-            } catch (Throwable e) {
-                e.printStackTrace();
+
+
             }
         }
     }
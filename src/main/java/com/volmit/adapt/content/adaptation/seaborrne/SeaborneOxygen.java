@@ -20,11 +20,11 @@ package com.volmit.adapt.content.adaptation.seaborrne;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.Form;
 import lombok.NoArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
@@ -43,6 +43,7 @@ public class SeaborneOxygen extends SimpleAdaptation<SeaborneOxygen.Config> {
         setBaseCost(getConfig().baseCost);
         setMaxLevel(getConfig().maxLevel);
         setInterval(3750);
+        setLane(TickLane.MAIN_THREAD);
         setInitialCost(getConfig().initialCost);
         setCostFactor(getConfig().costFactor);
     }
@@ -61,12 +62,13 @@ public class SeaborneOxygen extends SimpleAdaptation<SeaborneOxygen.Config> {
     }
 
     @Override
-    public void onTick() {
-        for(Player i : Bukkit.getOnlinePlayers()) {
-            if(getLevel(i) > 0) {
-                i.setMaximumAir(getRealMaxAir(getLevel(i)));
-            }
-        }
+    public void onPlayerTick(Player i) {
+        i.setMaximumAir(getRealMaxAir(getLevel(i)));
+    }
+
+    @Override
+    public void onDeactivate(Player i) {
+        i.setMaximumAir(300);
     }
 
     @Override
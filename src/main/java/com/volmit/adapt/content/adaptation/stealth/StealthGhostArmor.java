@@ -20,13 +20,13 @@ package com.volmit.adapt.content.adaptation.stealth;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.Form;
 import com.volmit.adapt.util.J;
 import com.volmit.adapt.util.M;
 import lombok.NoArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.attribute.Attribute;
 import org.bukkit.attribute.AttributeModifier;
@@ -46,6 +46,7 @@ public class StealthGhostArmor extends SimpleAdaptation<StealthGhostArmor.Config
         setDisplayName(Adapt.dLocalize("Stealth","GhostArmor", "Name"));
         setIcon(Material.NETHERITE_CHESTPLATE);
         setInterval(5353);
+        setLane(TickLane.MAIN_THREAD);
         setBaseCost(getConfig().baseCost);
         setInitialCost(getConfig().initialCost);
         setCostFactor(getConfig().costFactor);
@@ -67,47 +68,46 @@ public class StealthGhostArmor extends SimpleAdaptation<StealthGhostArmor.Config
     }
 
     @Override
-    public void onTick() {
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            if(!hasAdaptation(p)){
-                Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
-                for (AttributeModifier i : new ArrayList<>(c)) {
-                    if(i.getName().equals("adapt-ghost-armor")) {
-                        p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
-                    }
-                }
-                continue;
-            }
-            double oldArmor = 0;
-            double armor = getMaxArmorPoints(getLevelPercent(p));
-            armor = Double.isNaN(armor) ? 0 : armor;
+    public void onPlayerTick(Player p) {
+        double oldArmor = 0;
+        double armor = getMaxArmorPoints(getLevelPercent(p));
+        armor = Double.isNaN(armor) ? 0 : armor;
 
 
 
-            if(oldArmor < armor)
-            {Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
-                for (AttributeModifier i : new ArrayList<>(c)) {
-                    if(i.getName().equals("adapt-ghost-armor")) {
-                        oldArmor = i.getAmount();
-                        oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
-                        p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
-                    }
+        if(oldArmor < armor)
+        {Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
+            for (AttributeModifier i : new ArrayList<>(c)) {
+                if(i.getName().equals("adapt-ghost-armor")) {
+                    oldArmor = i.getAmount();
+                    oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
+                    p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
                 }
-                p.getAttribute(Attribute.GENERIC_ARMOR)
-                    .addModifier(new AttributeModifier("adapt-ghost-armor", Math.min(armor, oldArmor+getMaxArmorPerTick(getLevelPercent(p))), AttributeModifier.Operation.ADD_NUMBER));
             }
+            p.getAttribute(Attribute.GENERIC_ARMOR)
+                .addModifier(new AttributeModifier("adapt-ghost-armor", Math.min(armor, oldArmor+getMaxArmorPerTick(getLevelPercent(p))), AttributeModifier.Operation.ADD_NUMBER));
+        }
 
-            else if(oldArmor > armor)
-            {Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
-                for (AttributeModifier i : new ArrayList<>(c)) {
-                    if(i.getName().equals("adapt-ghost-armor")) {
-                        oldArmor = i.getAmount();
-                        oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
-                        p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
-                    }
+        else if(oldArmor > armor)
+        {Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
+            for (AttributeModifier i : new ArrayList<>(c)) {
+                if(i.getName().equals("adapt-ghost-armor")) {
+                    oldArmor = i.getAmount();
+                    oldArmor = Double.isNaN(oldArmor) ? 0 : oldArmor;
+                    p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
                 }
-                p.getAttribute(Attribute.GENERIC_ARMOR)
-                    .addModifier(new AttributeModifier("adapt-ghost-armor", armor, AttributeModifier.Operation.ADD_NUMBER));
+            }
+            p.getAttribute(Attribute.GENERIC_ARMOR)
+                .addModifier(new AttributeModifier("adapt-ghost-armor", armor, AttributeModifier.Operation.ADD_NUMBER));
+        }
+    }
+
+    @Override
+    public void onDeactivate(Player p) {
+        Collection<AttributeModifier> c = p.getAttribute(Attribute.GENERIC_ARMOR).getModifiers();
+        for (AttributeModifier i : new ArrayList<>(c)) {
+            if(i.getName().equals("adapt-ghost-armor")) {
+                p.getAttribute(Attribute.GENERIC_ARMOR).removeModifier(i);
             }
         }
     }
@@ -20,6 +20,7 @@ package com.volmit.adapt.content.adaptation.stealth;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.*;
 import lombok.NoArgsConstructor;
 import org.bukkit.Bukkit;
@@ -46,6 +47,7 @@ public class StealthSnatch extends SimpleAdaptation<StealthSnatch.Config> {
         setIcon(Material.CHEST_MINECART);
         setBaseCost(getConfig().baseCost);
         setInterval(50);
+        setLane(TickLane.MAIN_THREAD);
         setMaxLevel(getConfig().maxLevel);
         setInitialCost(getConfig().initialCost);
         setCostFactor(getConfig().costFactor);
@@ -133,11 +135,9 @@ public class StealthSnatch extends SimpleAdaptation<StealthSnatch.Config> {
     }
 
     @Override
-    public void onTick() {
-        for (Player i : Bukkit.getOnlinePlayers()) {
-            if (i.isSneaking()) {
-                J.s(() -> snatch(i));
-            }
+    public void onPlayerTick(Player i) {
+        if (i.isSneaking()) {
+            snatch(i);
         }
     }
 
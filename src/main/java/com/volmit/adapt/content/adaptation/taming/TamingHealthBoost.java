@@ -20,10 +20,10 @@ package com.volmit.adapt.content.adaptation.taming;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.C;
 import com.volmit.adapt.util.Element;
 import com.volmit.adapt.util.Form;
-import com.volmit.adapt.util.J;
 import lombok.NoArgsConstructor;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
@@ -33,7 +33,6 @@ import org.bukkit.attribute.AttributeModifier;
 import org.bukkit.entity.Player;
 import org.bukkit.entity.Tameable;
 
-import java.util.Collection;
 import java.util.UUID;
 
 public class TamingHealthBoost extends SimpleAdaptation<TamingHealthBoost.Config> {
@@ -51,6 +50,7 @@ public class TamingHealthBoost extends SimpleAdaptation<TamingHealthBoost.Config
         setMaxLevel(getConfig().maxLevel);
         setInitialCost(getConfig().initialCost);
         setInterval(4750);
+        setLane(TickLane.MAIN_THREAD);
         setCostFactor(getConfig().costFactor);
     }
 
@@ -66,18 +66,12 @@ public class TamingHealthBoost extends SimpleAdaptation<TamingHealthBoost.Config
     @Override
     public void onTick() {
         for(World i : Bukkit.getServer().getWorlds()) {
-            J.s(() -> {
-                Collection<Tameable> gl = i.getEntitiesByClass(Tameable.class);
-
-                J.a(() -> {
-                    for(Tameable j : gl) {
-                        if(j.isTamed() && j.getOwner() instanceof Player) {
-                            Player p = (Player) j.getOwner();
-                            update(j, getLevel(p));
-                        }
-                    }
-                });
-            });
+            for(Tameable j : i.getEntitiesByClass(Tameable.class)) {
+                if(j.isTamed() && j.getOwner() instanceof Player) {
+                    Player p = (Player) j.getOwner();
+                    update(j, getLevel(p));
+                }
+            }
         }
     }
 
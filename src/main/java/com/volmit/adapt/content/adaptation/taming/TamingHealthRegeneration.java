@@ -20,6 +20,7 @@ package com.volmit.adapt.content.adaptation.taming;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.adaptation.SimpleAdaptation;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.util.*;
 import lombok.NoArgsConstructor;
 import org.bukkit.Bukkit;
@@ -33,7 +34,6 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDeathEvent;
 import xyz.xenondevs.particle.ParticleEffect;
 
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -51,6 +51,7 @@ public class TamingHealthRegeneration extends SimpleAdaptation<TamingHealthRegen
         setMaxLevel(getConfig().maxLevel);
         setInitialCost(getConfig().initialCost);
         setInterval(1000);
+        setLane(TickLane.MAIN_THREAD);
         setCostFactor(getConfig().costFactor);
     }
 
@@ -89,28 +90,22 @@ public class TamingHealthRegeneration extends SimpleAdaptation<TamingHealthRegen
         }
 
         for (World i : Bukkit.getServer().getWorlds()) {
-            J.s(() -> {
-                Collection<Tameable> gl = i.getEntitiesByClass(Tameable.class);
-
-                J.a(() -> {
-                    for (Tameable j : gl) {
-                        if (lastDamage.containsKey(j.getUniqueId())) {
-                            continue;
-                        }
-
-                        double mh = j.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
-                        if (j.isTamed() && j.getOwner() instanceof Player && j.getHealth() < mh) {
-                            Player p = (Player) j.getOwner();
-                            int level = getLevel(p);
-
-                            if (level > 0) {
-                                J.s(() -> j.setHealth(Math.min(j.getHealth() + getRegenSpeed(level), mh)));
-                                ParticleEffect.HEART.display(j.getLocation().clone().add(0, 1, 0), 0.55f, 0.37f, 0.55f, 0.3f, level, null);
-                            }
-                        }
+            for (Tameable j : i.getEntitiesByClass(Tameable.class)) {
+                if (lastDamage.containsKey(j.getUniqueId())) {
+                    continue;
+                }
+
+                double mh = j.getAttribute(Attribute.GENERIC_MAX_HEALTH).getValue();
+                if (j.isTamed() && j.getOwner() instanceof Player && j.getHealth() < mh) {
+                    Player p = (Player) j.getOwner();
+                    int level = getLevel(p);
+
+                    if (level > 0) {
+                        j.setHealth(Math.min(j.getHealth() + getRegenSpeed(level), mh));
+                        ParticleEffect.HEART.display(j.getLocation().clone().add(0, 1, 0), 0.55f, 0.37f, 0.55f, 0.3f, level, null);
                     }
-                });
-            });
+                }
+            }
         }
     }
 
@@ -21,7 +21,10 @@ package com.volmit.adapt.content.skill;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.advancement.AdaptAdvancement;
 import com.volmit.adapt.api.skill.SimpleSkill;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.world.AdaptStatTracker;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.Stat;
 import com.volmit.adapt.content.adaptation.agility.AgilityArmorUp;
 import com.volmit.adapt.content.adaptation.agility.AgilitySuperJump;
 import com.volmit.adapt.content.adaptation.agility.AgilityWallJump;
@@ -37,6 +40,12 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.player.PlayerMoveEvent;
 
 public class SkillAgility extends SimpleSkill<SkillAgility.Config> {
+    private static final Stat MOVE = Stat.of("move");
+    private static final Stat MOVE_SNEAK = Stat.of("move.sneak");
+    private static final Stat MOVE_FLY = Stat.of("move.fly");
+    private static final Stat MOVE_SWIM = Stat.of("move.swim");
+    private static final Stat MOVE_SPRINT = Stat.of("move.sprint");
+
     public SkillAgility() {
         super("agility", Adapt.dLocalize("Skill", "Agility", "Icon"));
         registerConfiguration(Config.class);
@@ -44,6 +53,7 @@ public class SkillAgility extends SimpleSkill<SkillAgility.Config> {
         setDisplayName(Adapt.dLocalize("Skill", "Agility", "Name"));
         setColor(C.GREEN);
         setInterval(975);
+        setPriority(TickPriority.LOW);
         setIcon(Material.FEATHER);
         registerAdaptation(new AgilityWindUp());
         registerAdaptation(new AgilityWallJump());
@@ -82,15 +92,16 @@ public class SkillAgility extends SimpleSkill<SkillAgility.Config> {
     public void on(PlayerMoveEvent e) {
         if (e.getFrom().getWorld().equals(e.getTo().getWorld())) {
             double d = e.getFrom().distance(e.getTo());
-            getPlayer(e.getPlayer()).getData().addStat("move", d);
+            PlayerData data = getPlayer(e.getPlayer()).getData();
+            data.addStat(MOVE, d);
             if (e.getPlayer().isSneaking()) {
-                getPlayer(e.getPlayer()).getData().addStat("move.sneak", d);
+                data.addStat(MOVE_SNEAK, d);
             } else if (e.getPlayer().isFlying()) {
-                getPlayer(e.getPlayer()).getData().addStat("move.fly", d);
+                data.addStat(MOVE_FLY, d);
             } else if (e.getPlayer().isSwimming()) {
-                getPlayer(e.getPlayer()).getData().addStat("move.swim", d);
+                data.addStat(MOVE_SWIM, d);
             } else if (e.getPlayer().isSprinting()) {
-                getPlayer(e.getPlayer()).getData().addStat("move.sprint", d);
+                data.addStat(MOVE_SPRINT, d);
             }
         }
     }
@@ -75,7 +75,7 @@ public class SkillBrewing extends SimpleSkill<SkillBrewing.Config> {
     public void on(BlockPlaceEvent e) {
         if (e.getBlock().getType().equals(Material.BREWING_STAND)) {
             if (!e.isCancelled()) {
-                WorldData.of(e.getBlock().getWorld()).getMantle().set(e.getBlock().getX(), e.getBlock().getY(), e.getBlock().getZ(), new BrewingStandOwner(e.getPlayer().getUniqueId()));
+                WorldData.of(e.getBlock().getWorld()).set(e.getBlock().getX(), e.getBlock().getY(), e.getBlock().getZ(), new BrewingStandOwner(e.getPlayer().getUniqueId()));
             }
         }
     }
@@ -84,7 +84,7 @@ public class SkillBrewing extends SimpleSkill<SkillBrewing.Config> {
     public void on(BlockBreakEvent e) {
         if (!e.isCancelled()) {
             if (e.getBlock().getType().equals(Material.BREWING_STAND)) {
-                WorldData.of(e.getBlock().getWorld()).getMantle().remove(e.getBlock().getX(), e.getBlock().getY(), e.getBlock().getZ(), BrewingStandOwner.class);
+                WorldData.of(e.getBlock().getWorld()).remove(e.getBlock().getX(), e.getBlock().getY(), e.getBlock().getZ(), BrewingStandOwner.class);
             }
         }
     }
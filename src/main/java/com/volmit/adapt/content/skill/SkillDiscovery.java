@@ -20,6 +20,7 @@ package com.volmit.adapt.content.skill;
 
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.skill.SimpleSkill;
+import com.volmit.adapt.api.tick.TickLane;
 import com.volmit.adapt.api.world.Discovery;
 import com.volmit.adapt.content.adaptation.discovery.DiscoveryArmor;
 import com.volmit.adapt.content.adaptation.discovery.DiscoveryUnity;
@@ -55,6 +56,7 @@ public class SkillDiscovery extends SimpleSkill<SkillDiscovery.Config> {
         setDescription(Adapt.dLocalize("Skill", "Discovery", "Description"));
         setDisplayName(Adapt.dLocalize("Skill", "Discovery", "Name"));
         setInterval(500);
+        setLane(TickLane.MAIN_THREAD);
         setIcon(Material.FILLED_MAP);
         registerAdaptation(new DiscoveryUnity());
         registerAdaptation(new DiscoveryArmor());
@@ -21,6 +21,8 @@ package com.volmit.adapt.content.skill;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.skill.SimpleSkill;
 import com.volmit.adapt.api.world.AdaptPlayer;
+import com.volmit.adapt.api.world.PlayerData;
+import com.volmit.adapt.api.world.Stat;
 import com.volmit.adapt.content.adaptation.pickaxe.PickaxeAutosmelt;
 import com.volmit.adapt.content.adaptation.pickaxe.PickaxeChisel;
 import com.volmit.adapt.content.adaptation.pickaxe.PickaxeDropToInventory;
@@ -37,6 +39,11 @@ import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.inventory.ItemStack;
 
 public class SkillPickaxes extends SimpleSkill<SkillPickaxes.Config> {
+    private static final Stat SWINGS = Stat.of("pickaxes.swings");
+    private static final Stat DAMAGE = Stat.of("pickaxes.damage");
+    private static final Stat BLOCKS_BROKEN = Stat.of("pickaxes.blocks.broken");
+    private static final Stat BLOCKS_VALUE = Stat.of("pickaxes.blocks.value");
+
     public SkillPickaxes() {
         super("pickaxes", Adapt.dLocalize("Skill", "Pickaxe", "Icon"));
         registerConfiguration(Config.class);
@@ -59,8 +66,8 @@ public class SkillPickaxes extends SimpleSkill<SkillPickaxes.Config> {
                 ItemStack hand = a.getPlayer().getInventory().getItemInMainHand();
                 if (isPickaxe(hand)) {
                     xp(a.getPlayer(), e.getEntity().getLocation(), getConfig().damageXPMultiplier * e.getDamage());
-                    getPlayer(a.getPlayer()).getData().addStat("pickaxes.swings", 1);
-                    getPlayer(a.getPlayer()).getData().addStat("pickaxes.damage", e.getDamage());
+                    a.getData().addStat(SWINGS, 1);
+                    a.getData().addStat(DAMAGE, e.getDamage());
                 }
             }
         }
@@ -70,8 +77,9 @@ public class SkillPickaxes extends SimpleSkill<SkillPickaxes.Config> {
     public void on(BlockBreakEvent e) {
         if (isPickaxe(e.getPlayer().getInventory().getItemInMainHand())) {
             double v = getValue(e.getBlock().getType());
-            getPlayer(e.getPlayer()).getData().addStat("pickaxes.blocks.broken", 1);
-            getPlayer(e.getPlayer()).getData().addStat("pickaxes.blocks.value", getValue(e.getBlock().getBlockData()));
+            PlayerData data = getPlayer(e.getPlayer()).getData();
+            data.addStat(BLOCKS_BROKEN, 1);
+            data.addStat(BLOCKS_VALUE, getValue(e.getBlock().getBlockData()));
             J.a(() -> xp(e.getPlayer(), e.getBlock().getLocation().clone().add(0.5, 0.5, 0.5), blockXP(e.getBlock(), v)));
         }
     }
@@ -21,6 +21,7 @@ package com.volmit.adapt.content.skill;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.advancement.AdaptAdvancement;
 import com.volmit.adapt.api.skill.SimpleSkill;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.world.AdaptStatTracker;
 import com.volmit.adapt.content.adaptation.seaborrne.SeaborneOxygen;
 import com.volmit.adapt.content.adaptation.seaborrne.SeaborneSpeed;
@@ -42,6 +43,7 @@ public class SkillSeaborne extends SimpleSkill<SkillSeaborne.Config> {
         setDescription(Adapt.dLocalize("Skill", "Seaborne", "Description"));
         setDisplayName(Adapt.dLocalize("Skill", "Seaborne", "Name"));
         setInterval(2120);
+        setPriority(TickPriority.LOW);
         setIcon(Material.TRIDENT);
         registerAdaptation(new SeaborneOxygen());
         registerAdaptation(new SeaborneSpeed());
@@ -21,6 +21,7 @@ package com.volmit.adapt.content.skill;
 import com.volmit.adapt.Adapt;
 import com.volmit.adapt.api.advancement.AdaptAdvancement;
 import com.volmit.adapt.api.skill.SimpleSkill;
+import com.volmit.adapt.api.tick.TickPriority;
 import com.volmit.adapt.api.world.AdaptStatTracker;
 import com.volmit.adapt.content.adaptation.stealth.StealthGhostArmor;
 import com.volmit.adapt.content.adaptation.stealth.StealthSight;
@@ -40,6 +41,7 @@ public class SkillStealth extends SimpleSkill<SkillStealth.Config> {
         registerConfiguration(Config.class);
         setColor(C.DARK_GRAY);
         setInterval(1412);
+        setPriority(TickPriority.LOW);
         setIcon(Material.WITHER_ROSE);
         setDescription(Adapt.dLocalize("Skill", "Stealth", "Description"));
         setDisplayName(Adapt.dLocalize("Skill", "Stealth", "Name"));
@@ -33,6 +33,7 @@ public class AtomicAverage {
     private double lastSum;
     private boolean dirty;
     protected int cursor;
+    protected int filled;
     private boolean brandNew;
 
     /**
@@ -47,6 +48,7 @@ public class AtomicAverage {
         brandNew = true;
         average = 0;
         cursor = 0;
+        filled = 0;
         lastSum = 0;
         dirty = false;
     }
@@ -65,9 +67,14 @@ public class AtomicAverage {
             DoubleArrayUtils.fill(values, i);
             lastSum = size() * i;
             brandNew = false;
+            filled = 1;
             return;
         }
 
+        if(filled < size()) {
+            filled++;
+        }
+
         double current = values.get(cursor);
         lastSum = (lastSum - current) + i;
         values.set(cursor, i);
@@ -97,6 +104,14 @@ public class AtomicAverage {
         return values.length();
     }
 
+    /**
+     * The number of slots holding real samples. The first sample is copied into every
+     * slot to seed the average, the actual samples fill slots from 0 until this.
+     */
+    public int getFilled() {
+        return filled;
+    }
+
     public boolean isDirty() {
         return dirty;
     }
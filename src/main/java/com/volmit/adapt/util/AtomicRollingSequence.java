@@ -19,6 +19,7 @@
 package com.volmit.adapt.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class AtomicRollingSequence extends AtomicAverage {
@@ -79,12 +80,46 @@ public class AtomicRollingSequence extends AtomicAverage {
         return median;
     }
 
-    private void recalculateMedian() {
-        double[] a = new double[values.length()];
+    /**
+     * Get a percentile of the values currently in the sequence
+     *
+     * @param percentile
+     *     the percentile from 0 to 1
+     * @return the value at that percentile
+     */
+    public double getPercentile(double percentile) {
+        double[] a = samples();
+
+        if(a.length == 0) {
+            return 0;
+        }
+
+        Arrays.sort(a);
+        return a[(int) Math.min(a.length - 1, Math.max(0, Math.ceil(percentile * a.length) - 1))];
+    }
+
+    /**
+     * Only the slots holding real samples, not the copies of the first one that seed
+     * the average.
+     */
+    private double[] samples() {
+        double[] a = new double[Math.min(filled, values.length())];
         for(int i = 0; i < a.length; i++)
         {
             a[i] = values.get(i);
         }
+        return a;
+    }
+
+    private void recalculateMedian() {
+        double[] a = samples();
+
+        if(a.length == 0) {
+            median = 0;
+            dirtyMedian = false;
+            return;
+        }
+
         median = new ArrayList<Double>().forceAdd(a).sort().middleValue();
         dirtyMedian = false;
     }
@@ -39,6 +39,9 @@ import java.io.Reader;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -357,6 +360,26 @@ public class IO {
         pw.close();
     }
 
+    /**
+     * Writes to a temp file next to the target, syncs it to disk and renames it over
+     * the target, so readers only ever see the old or the new contents in full.
+     */
+    public static void writeAtomic(File f, byte[] data) throws IOException {
+        f.getParentFile().mkdirs();
+        File tmp = new File(f.getParentFile(), f.getName() + ".tmp");
+
+        try(FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+
+        try {
+            Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     public static String readAll(File f) throws IOException {
         BufferedReader bu = new BufferedReader(new FileReader(f));
         String c = "";
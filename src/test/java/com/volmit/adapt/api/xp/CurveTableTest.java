@@ -0,0 +1,73 @@
+/*------------------------------------------------------------------------------
+ -   Adapt is a Skill/Integration plugin  for Minecraft Bukkit Servers
+ -   Copyright (c) 2022 Arcane Arts (Volmit Software)
+ -
+ -   This program is free software: you can redistribute it and/or modify
+ -   it under the terms of the GNU General Public License as published by
+ -   the Free Software Foundation, either version 3 of the License, or
+ -   (at your option) any later version.
+ -
+ -   This program is distributed in the hope that it will be useful,
+ -   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ -   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ -   GNU General Public License for more details.
+ -
+ -   You should have received a copy of the GNU General Public License
+ -   along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ -----------------------------------------------------------------------------*/
+
+package com.volmit.adapt.api.xp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks every {@link Curves} table against the curve's own solver.
+ */
+public class CurveTableTest {
+    private static final double MAX_ERROR = 0.000001;
+
+    @Test
+    public void matchesSolver() {
+        Random r = new Random(42);
+
+        for(Curves i : Curves.values()) {
+            NewtonCurve curve = i.getCurve();
+            double max = curve.getXPForLevel(CurveTable.LEVELS + 16);
+
+            for(int j = 0; j < 20000; j++) {
+                double x = r.nextDouble() * max;
+                assertEquals(curve.computeLevelForXP(x, MAX_ERROR), i.getLevelForXp(x), MAX_ERROR, i + " at " + x + " xp");
+            }
+        }
+    }
+
+    @Test
+    public void matchesSolverAtLevelBoundaries() {
+        for(Curves i : Curves.values()) {
+            NewtonCurve curve = i.getCurve();
+
+            for(int j = 1; j <= CurveTable.LEVELS; j++) {
+                for(double x : new double[] {Math.nextDown(curve.getXPForLevel(j)), curve.getXPForLevel(j), Math.nextUp(curve.getXPForLevel(j))}) {
+                    assertEquals(curve.computeLevelForXP(x, MAX_ERROR), i.getLevelForXp(x), MAX_ERROR, i + " at " + x + " xp");
+                }
+            }
+        }
+    }
+
+    @Test
+    public void floorsToTheRightLevel() {
+        for(Curves i : Curves.values()) {
+            NewtonCurve curve = i.getCurve();
+
+            for(int j = 1; j < CurveTable.LEVELS; j++) {
+                double x = curve.getXPForLevel(j);
+                assertEquals(j, (int) Math.floor(i.getLevelForXp(x)), i + " at level " + j);
+                assertEquals(j - 1, (int) Math.floor(i.getLevelForXp(Math.nextDown(x))), i + " below level " + j);
+            }
+        }
+    }
+}